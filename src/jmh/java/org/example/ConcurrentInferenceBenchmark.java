@@ -0,0 +1,126 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+// Throughput of single-row predictions from many threads at once:
+//   shared network   one MultiLayerNetwork, whose output() is synchronized
+//   shared predictor one CompiledPredictor behind a lock (the previous predictPrice)
+//   replica pool     InferencePool.predictBatch, one ND4J replica per core
+//   pool engine      InferencePool.predictPrice, shared engine with per-thread scratch
+// Usage: ConcurrentInferenceBenchmark [threads,...] [seconds per run] [model bundle]
+public class ConcurrentInferenceBenchmark {
+
+    private interface Predictor {
+        double predict(double[] features);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String[] threadCounts = (args.length > 0 ? args[0] : "1,2,4,8,16").split(",");
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2;
+        Path bundlePath = args.length > 2 ? Paths.get(args[2]) : Paths.get("model", "house-price-model.zip");
+
+        ModelBundle bundle;
+        if (Files.exists(bundlePath)) {
+            bundle = ModelBundle.load(bundlePath);
+        } else {
+            // Accuracy does not matter for contention, a briefly trained model will do
+            HousePricePredictionANN app = new HousePricePredictionANN();
+            app.buildModel();
+            app.trainModel(new TrainingConfig().setEpochs(10));
+            bundle = app.toBundle();
+        }
+
+        HousingDataLoader loader = new HousingDataLoader();
+        loader.loadDataMapped("src/main/resources/Housing.csv");
+        HousingDataset dataset = loader.getAllData();
+        double[][] rows = new double[dataset.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = dataset.getRawFeatures(i);
+        }
+
+        MultiLayerNetwork network = bundle.getNetwork();
+        BatchScorer sharedScorer = new BatchScorer(network, bundle.getScaler());
+        CompiledPredictor sharedPredictor = new CompiledPredictor(bundle);
+        InferencePool pool = new InferencePool(bundle);
+
+        // Every scheme has to give the same prices before its speed means anything
+        for (double[] row : rows) {
+            double expected = pool.predictPrice(row);
+            double batched = pool.predictBatch(new double[][] {row})[0];
+            if (Math.abs(batched - expected) > 1e-3 * Math.max(1, Math.abs(expected))) {
+                throw new IllegalStateException("Replica and engine disagree: " + batched + " vs " + expected);
+            }
+        }
+
+        Predictor[] predictors = {
+                features -> sharedScorer.predict(new double[][] {features})[0],
+                features -> {
+                    synchronized (sharedPredictor) {
+                        return sharedPredictor.predict(features);
+                    }
+                },
+                features -> pool.predictBatch(new double[][] {features})[0],
+                pool::predictPrice
+        };
+        String[] names = {"shared network", "shared predictor", "replica pool", "pool engine"};
+
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors() +
+                ", replicas: " + pool.getReplicaCount());
+        for (int p = 0; p < predictors.length; p++) {
+            // Warm-up so JIT compilation is not measured
+            run(predictors[p], rows, 1, 0.5);
+
+            double baseline = 0;
+            for (String count : threadCounts) {
+                int threads = Integer.parseInt(count.trim());
+                double perSecond = run(predictors[p], rows, threads, seconds);
+                if (baseline == 0) {
+                    baseline = perSecond;
+                }
+                System.out.printf("%-17s threads=%-3d %12.0f predictions/s  speedup x%.2f%n",
+                        names[p], threads, perSecond, perSecond / baseline);
+            }
+        }
+    }
+
+    // Predictions per second with all threads predicting back to back
+    private static double run(Predictor predictor, double[][] rows, int threads, double seconds)
+            throws InterruptedException {
+        LongAdder predictions = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long durationNanos = (long) (seconds * 1e9);
+
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    long deadline = System.nanoTime() + durationNanos;
+                    long count = 0;
+                    double checksum = 0;
+                    while (System.nanoTime() < deadline) {
+                        checksum += predictor.predict(rows[(int) ((offset + count) % rows.length)]);
+                        count++;
+                    }
+                    predictions.add(checksum == Double.NEGATIVE_INFINITY ? 0 : count);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "predict-" + t);
+            thread.start();
+        }
+        start.countDown();
+        done.await();
+        return predictions.sum() / seconds;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Compares the BufferedReader/split loading path with the memory-mapped parser.
+// Usage: CsvLoadBenchmark [rows] [iterations]
+public class CsvLoadBenchmark {
+
+    private static final String DATASET_PATH = "src/main/resources/Housing.csv";
+
+    // Keeps the JIT from eliminating the parsing work
+    private static volatile double sink;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Path file = createSyntheticFile(rows);
+        System.out.println("Benchmark file: " + file + " (" + rows + " rows, " + Files.size(file) / (1024 * 1024) + " MB)");
+
+        try {
+            for (int i = 0; i < iterations; i++) {
+                System.out.println("\nIteration " + (i + 1));
+                measure("parse (split)", rows, () -> parseWithSplit(file));
+                measure("parse (mapped)", rows, () -> HousingCsvParser.parse(file, (price, features) -> sink = price));
+                measure("loadData", rows, () -> new HousingDataLoader().loadData(file.toString()));
+                measure("loadDataMapped", rows, () -> new HousingDataLoader().loadDataMapped(file.toString()));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private interface Task {
+        void run() throws IOException;
+    }
+
+    private static void measure(String name, int rows, Task task) throws IOException {
+        System.gc();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        task.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%-16s %8.1f ms  %12.0f rows/s  %8.1f bytes/row allocated%n",
+                name, elapsed / 1e6, rows / seconds, (double) allocated / rows);
+    }
+
+    // Same work as the legacy loader, without building records
+    private static void parseWithSplit(Path file) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            br.readLine();
+            double checksum = 0;
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = values[i].trim();
+                }
+                checksum += Double.parseDouble(values[0]) + Double.parseDouble(values[1]);
+            }
+            sink = checksum;
+        }
+    }
+
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    // Rows drawn from the distributions and correlations of the bundled dataset (fixed seed)
+    static Path createSyntheticFile(int rows) throws IOException {
+        Path file = Files.createTempFile("housing-benchmark", ".csv");
+        SyntheticHousingGenerator.fit(Paths.get(DATASET_PATH))
+                .write(file, rows, 42, Runtime.getRuntime().availableProcessors());
+        return file;
+    }
+}
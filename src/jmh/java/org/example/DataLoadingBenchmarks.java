@@ -0,0 +1,59 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Loading and normalizing a CSV of the given size, with both parsing paths.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class DataLoadingBenchmarks {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = CsvLoadBenchmark.createSyntheticFile(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public HousingDataLoader loadData() {
+        HousingDataLoader loader = new HousingDataLoader();
+        loader.loadData(file.toString());
+        return loader;
+    }
+
+    @Benchmark
+    public HousingDataLoader loadDataMapped() {
+        HousingDataLoader loader = new HousingDataLoader();
+        loader.loadDataMapped(file.toString());
+        return loader;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// Single-row and batched predictions over the rows of the bundled dataset. The weights
+// do not change the cost, so the network is not trained.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InferenceBenchmarks {
+
+    private double[][] rows;
+    private int next;
+    private ModelRegistry registry;
+    private PredictionCache cache;
+    private BatchScorer nd4j;
+
+    @Setup(Level.Trial)
+    public void load() {
+        HousingDataLoader loader = new HousingDataLoader();
+        loader.loadDataMapped("src/main/resources/Housing.csv");
+        HousingDataset dataset = loader.getAllData();
+        rows = new double[dataset.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = dataset.getRawFeatures(i);
+        }
+
+        ModelConfig config = new ModelConfig();
+        MultiLayerNetwork network = config.createNetwork(loader.getInputDimension());
+        FeatureScaler scaler = loader.getScaler().snapshot();
+        registry = new ModelRegistry();
+        registry.publish(new ModelBundle(network, config, scaler, dataset.fingerprint(), dataset.size()),
+                Collections.emptyMap());
+        cache = new PredictionCache(registry, 4096, 1);
+        nd4j = new BatchScorer(network, scaler);
+    }
+
+    private double[] nextRow() {
+        double[] row = rows[next];
+        next = next + 1 == rows.length ? 0 : next + 1;
+        return row;
+    }
+
+    // predictPrice without cache: the exported engine
+    @Benchmark
+    public double predictPrice() {
+        return registry.predictPrice(nextRow());
+    }
+
+    @Benchmark
+    public double predictPriceCached() {
+        return cache.predictPrice(nextRow());
+    }
+
+    // One row through an ND4J forward pass, the path before the engine
+    @Benchmark
+    public double predictPriceNd4j() {
+        return nd4j.predict(new double[][] {nextRow()})[0];
+    }
+
+    // Every row of the dataset in one forward pass on a replica
+    @Benchmark
+    public double[] predictBatch() {
+        return registry.predictBatch(rows);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Scaling of data-parallel training with the number of workers (model replicas).
+// Usage: ParallelTrainingBenchmark [rows] [epochs] [batchSize] [workers,...]
+public class ParallelTrainingBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int epochs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        String[] workerCounts = (args.length > 3 ? args[3] : "1,2,4,8,16").split(",");
+
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        Path file = CsvLoadBenchmark.createSyntheticFile(rows);
+        try {
+            HousePricePredictionANN app = new HousePricePredictionANN(file.toString());
+            int trainingRows = (int) (rows * 0.8);
+
+            // Warm-up so JIT and native library loading are not measured
+            app.buildModel();
+            app.trainModel(new TrainingConfig().setEpochs(1).setBatchSize(batchSize));
+
+            double baseline = 0;
+            for (String count : workerCounts) {
+                int workers = Integer.parseInt(count.trim());
+                TrainingConfig config = new TrainingConfig()
+                        .setEpochs(epochs)
+                        .setBatchSize(batchSize)
+                        .setWorkers(workers);
+
+                app.buildModel();
+                long start = System.nanoTime();
+                app.trainModel(config);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                double samplesPerSecond = (double) trainingRows * epochs / seconds;
+                if (baseline == 0) {
+                    baseline = samplesPerSecond;
+                }
+                System.out.printf("workers=%-3d %8.2f s  %12.0f samples/s  speedup x%.2f%n",
+                        workers, seconds, samplesPerSecond, samplesPerSecond / baseline);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
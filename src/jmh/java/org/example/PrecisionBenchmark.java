@@ -0,0 +1,116 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Accuracy, throughput and memory of each InferencePrecision on the test split, against
+// the network evaluated in double precision by ND4J.
+// Usage: PrecisionBenchmark [model bundle] [predictions]
+public class PrecisionBenchmark {
+
+    // Keeps the JIT from eliminating the predictions
+    private static volatile double sink;
+
+    public static void main(String[] args) throws IOException {
+        int predictions = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        ModelBundle bundle;
+        if (args.length > 0) {
+            bundle = ModelBundle.load(Paths.get(args[0]));
+        } else {
+            HousePricePredictionANN app = new HousePricePredictionANN();
+            app.buildModel();
+            app.trainModel();
+            bundle = app.toBundle();
+        }
+        FeatureScaler scaler = bundle.getScaler();
+
+        HousingDataLoader loader = new HousingDataLoader();
+        loader.loadDataMapped("src/main/resources/Housing.csv");
+        HousingDataView testing = loader.getSplit(0.8).getTesting();
+
+        // Normalized inputs and targets of the test rows, computed in double
+        int rows = testing.size();
+        int numFeatures = HousingDataset.NUM_FEATURES;
+        double[][] raw = new double[rows][];
+        double[][] normalized = new double[rows][numFeatures];
+        double[] targets = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            raw[r] = testing.getRawFeatures(r);
+            scaler.transformFeatures(raw[r], normalized[r]);
+            targets[r] = scaler.normalizePrice(testing.getPrice(r));
+        }
+
+        MultiLayerNetwork reference = bundle.getNetwork().convertDataType(DataType.DOUBLE);
+        double[] expected = reference.output(Nd4j.create(normalized)).toDoubleVector();
+        Metrics referenceMetrics = new Metrics(expected, targets, expected);
+
+        System.out.println("\nPrecision  RMSE(test)   ΔRMSE       R²        ΔR²         max|Δ|      Params(B)  Predictions/s");
+        System.out.printf("%-9s  %.6f   %-10s  %.6f  %-10s  %-10s  %9d  %s%n", "DOUBLE", referenceMetrics.rmse, "-",
+                referenceMetrics.r2, "-", "-", 8L * reference.numParams(), "(ND4J reference)");
+
+        for (InferencePrecision precision : InferencePrecision.values()) {
+            InferenceEngine engine = precision.createEngine(bundle.getNetwork(), scaler);
+            float[] scratch = engine.newScratch();
+
+            double[] actual = new double[rows];
+            for (int r = 0; r < rows; r++) {
+                for (int i = 0; i < numFeatures; i++) {
+                    scratch[i] = (float) normalized[r][i];
+                }
+                actual[r] = engine.forward(scratch);
+            }
+            Metrics metrics = new Metrics(actual, targets, expected);
+
+            // Warm up, then time raw-feature predictions cycling over the test rows
+            measureThroughput(engine, scratch, raw, predictions / 10);
+            double perSecond = measureThroughput(engine, scratch, raw, predictions);
+
+            System.out.printf("%-9s  %.6f   %+.3e  %.6f  %+.3e  %.3e  %9d  %13.0f%n", precision, metrics.rmse,
+                    metrics.rmse - referenceMetrics.rmse, metrics.r2, metrics.r2 - referenceMetrics.r2,
+                    metrics.maxDifference, engine.parameterBytes(), perSecond);
+        }
+    }
+
+    private static double measureThroughput(InferenceEngine engine, float[] scratch, double[][] rows, int count) {
+        long start = System.nanoTime();
+        double checksum = 0;
+        for (int i = 0; i < count; i++) {
+            checksum += engine.predict(rows[i % rows.length], scratch);
+        }
+        long elapsed = System.nanoTime() - start;
+        sink = checksum;
+        return count / (elapsed / 1e9);
+    }
+
+    // RMSE and R² against the targets, and the largest difference from the reference output
+    private static class Metrics {
+        final double rmse;
+        final double r2;
+        final double maxDifference;
+
+        Metrics(double[] predictions, double[] targets, double[] reference) {
+            double mean = 0;
+            for (double target : targets) {
+                mean += target;
+            }
+            mean /= targets.length;
+
+            double ssRes = 0;
+            double ssTot = 0;
+            double maxDiff = 0;
+            for (int i = 0; i < targets.length; i++) {
+                ssRes += (predictions[i] - targets[i]) * (predictions[i] - targets[i]);
+                ssTot += (targets[i] - mean) * (targets[i] - mean);
+                maxDiff = Math.max(maxDiff, Math.abs(predictions[i] - reference[i]));
+            }
+            rmse = Math.sqrt(ssRes / targets.length);
+            r2 = 1 - ssRes / ssTot;
+            maxDifference = maxDiff;
+        }
+    }
+}
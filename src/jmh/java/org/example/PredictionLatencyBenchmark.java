@@ -0,0 +1,72 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Latency and heap allocation of single-row predictions: the original path (normalize
+// into a new array, wrap in a new 1x12 INDArray, output) against CompiledPredictor,
+// which runs the exported network on the pure-Java MlpEngine.
+// Usage: PredictionLatencyBenchmark [model bundle] [iterations]
+public class PredictionLatencyBenchmark {
+
+    // Keeps the JIT from eliminating the predictions
+    private static volatile double sink;
+
+    private interface Predictor {
+        double predict(double[] features);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        ModelBundle bundle;
+        if (args.length > 0) {
+            bundle = ModelBundle.load(Paths.get(args[0]));
+        } else {
+            // No bundle given, a briefly trained model is enough to measure latency
+            HousePricePredictionANN app = new HousePricePredictionANN();
+            app.buildModel();
+            app.trainModel(new TrainingConfig().setEpochs(10));
+            bundle = app.toBundle();
+        }
+
+        // Rows of the bundled dataset, cycled through during the measurement
+        HousingDataLoader loader = new HousingDataLoader();
+        loader.loadDataMapped("src/main/resources/Housing.csv");
+        HousingDataset dataset = loader.getAllData();
+        double[][] rows = new double[dataset.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = dataset.getRawFeatures(i);
+        }
+
+        CompiledPredictor compiled = new CompiledPredictor(bundle);
+        bundle.getScaler().transform(dataset);
+        MlpExport.verify(bundle.getNetwork(), MlpExport.export(bundle), dataset, MlpExport.DEFAULT_TOLERANCE);
+        for (int round = 0; round < 2; round++) {
+            System.out.println(round == 0 ? "\nWarm-up" : "\nMeasurement");
+            measure("predictPrice", bundle::predictPrice, rows, iterations);
+            measure("compiled", compiled::predict, rows, iterations);
+        }
+    }
+
+    private static void measure(String name, Predictor predictor, double[][] rows, int iterations) {
+        long[] latencies = new long[iterations];
+        System.gc();
+        long allocatedBefore = CsvLoadBenchmark.allocatedBytes();
+        double checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            checksum += predictor.predict(rows[i % rows.length]);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long allocated = CsvLoadBenchmark.allocatedBytes() - allocatedBefore;
+        sink = checksum;
+
+        // The latency array itself is allocated before the measurement starts
+        Arrays.sort(latencies);
+        System.out.printf("%-14s p50 %7.2f us  p99 %7.2f us  p99.9 %7.2f us  %8.1f bytes/op allocated%n",
+                name, latencies[iterations / 2] / 1e3, latencies[(int) (iterations * 0.99)] / 1e3,
+                latencies[(int) (iterations * 0.999)] / 1e3, (double) allocated / iterations);
+    }
+}
@@ -0,0 +1,145 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load generator for PredictionServer: every client thread sends single-row
+// JSON requests back to back and records the latency of each one.
+// Without a URL, in-process servers are started with batching off (1 row, no wait) and on
+// (defaults) and both are measured.
+// Usage: PredictionLoadGenerator [clients] [seconds] [url]
+public class PredictionLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        if (args.length > 2) {
+            run(args[2], clients, seconds, null);
+            return;
+        }
+
+        ModelBundle bundle;
+        if (Files.exists(Paths.get("model", "house-price-model.zip"))) {
+            bundle = ModelBundle.load(Paths.get("model", "house-price-model.zip"));
+        } else {
+            // Accuracy does not matter for load testing, a briefly trained model will do
+            HousePricePredictionANN app = new HousePricePredictionANN();
+            app.buildModel();
+            app.trainModel(new TrainingConfig().setEpochs(10));
+            bundle = app.toBundle();
+        }
+
+        try (PredictionServer server = new PredictionServer(bundle, 0, 1, 0)) {
+            server.start();
+            System.out.println("\nBatching off (1 row per forward pass)");
+            run("http://localhost:" + server.getPort() + "/predict", clients, seconds, server.getBatcher());
+        }
+        try (PredictionServer server = new PredictionServer(bundle, 0, PredictionServer.DEFAULT_MAX_BATCH_ROWS,
+                PredictionServer.DEFAULT_MAX_DELAY_MICROS)) {
+            server.start();
+            System.out.println("\nBatching on (up to " + PredictionServer.DEFAULT_MAX_BATCH_ROWS + " rows or " +
+                    PredictionServer.DEFAULT_MAX_DELAY_MICROS + " us)");
+            run("http://localhost:" + server.getPort() + "/predict", clients, seconds, server.getBatcher());
+        }
+    }
+
+    private static void run(String url, int clients, int seconds, MicroBatcher batcher) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"features\":[7420,4,2,3,1,0,0,0,1,2,1,0]}"))
+                .build();
+
+        // Short warm-up before the measured run
+        load(client, request, clients, 1_000_000_000L);
+
+        long batchesBefore = batcher != null ? batcher.getBatches() : 0;
+        long rowsBefore = batcher != null ? batcher.getRowsPredicted() : 0;
+        long durationNanos = seconds * 1_000_000_000L;
+        long[][] latencies = load(client, request, clients, durationNanos);
+
+        int total = 0;
+        for (long[] clientLatencies : latencies) {
+            total += clientLatencies.length;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] clientLatencies : latencies) {
+            System.arraycopy(clientLatencies, 0, all, offset, clientLatencies.length);
+            offset += clientLatencies.length;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%d clients: %.0f requests/s, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms%n",
+                clients, total / (durationNanos / 1e9), percentile(all, 0.5) / 1e6,
+                percentile(all, 0.99) / 1e6, percentile(all, 0.999) / 1e6);
+        if (batcher != null) {
+            long batches = batcher.getBatches() - batchesBefore;
+            long rows = batcher.getRowsPredicted() - rowsBefore;
+            System.out.printf("%d forward passes, %.1f rows per pass%n", batches, batches == 0 ? 0.0 : (double) rows / batches);
+        }
+    }
+
+    private static long[][] load(HttpClient client, HttpRequest request, int clients, long durationNanos)
+            throws InterruptedException {
+        long[][] latencies = new long[clients][];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long deadline = System.nanoTime() + durationNanos;
+
+        for (int c = 0; c < clients; c++) {
+            int index = c;
+            Thread thread = new Thread(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[index] = Arrays.copyOf(samples, count);
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.start();
+        }
+        done.await();
+
+        if (errors.get() > 0) {
+            System.out.println(errors.get() + " failed requests");
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+}
@@ -0,0 +1,83 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// The steps between loading and training, on an already loaded dataset.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PreprocessingBenchmarks {
+
+    @Param({"545", "100000"})
+    public int rows;
+
+    private HousingDataLoader loader;
+    private HousingDataset dataset;
+    private HousingDataView training;
+    private int[] permutation;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        Path file = CsvLoadBenchmark.createSyntheticFile(rows);
+        try {
+            loader = new HousingDataLoader();
+            loader.loadDataMapped(file.toString());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        dataset = loader.getAllData();
+        training = loader.getSplit(0.8).getTraining();
+
+        // The order does not change the cost of building the views
+        permutation = new int[dataset.size()];
+        for (int i = 0; i < permutation.length; i++) {
+            permutation[i] = i;
+        }
+    }
+
+    // What normalizeData does: fit the scaler from its statistics and rewrite the blocks
+    @Benchmark
+    public FeatureScaler normalizeData() {
+        FeatureScaler scaler = loader.getScaler();
+        scaler.fit();
+        scaler.transform(dataset);
+        return scaler;
+    }
+
+    // The full co-moment pass; the loader caches its result, so calculateCorrelationMatrix()
+    // would only measure the finalization after the first call
+    @Benchmark
+    public double[][] calculateCorrelationMatrix() {
+        return CorrelationEngine.compute(dataset).correlationMatrix();
+    }
+
+    // Building the training and testing views over a permutation
+    @Benchmark
+    public DataSplit newSplit() {
+        return new DataSplit(dataset, permutation, 0.8, HousingDataLoader.DEFAULT_SPLIT_SEED);
+    }
+
+    @Benchmark
+    public double[][] getFeatureMatrix() {
+        return loader.getFeatureMatrix(training);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// One training epoch through TrainingController, full batch (0) or mini-batches.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TrainingBenchmarks {
+
+    @Param({"545", "20000"})
+    public int rows;
+
+    @Param({"0", "64"})
+    public int batchSize;
+
+    private HousingDataLoader loader;
+    private HousingDataView training;
+    private MultiLayerNetwork model;
+    private TrainingConfig config;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        Path file = CsvLoadBenchmark.createSyntheticFile(rows);
+        try {
+            loader = new HousingDataLoader();
+            loader.loadDataMapped(file.toString());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        training = loader.getSplit(0.8).getTraining();
+        model = new ModelConfig().createNetwork(loader.getInputDimension());
+        config = new TrainingConfig().setEpochs(1).setBatchSize(batchSize);
+    }
+
+    @Benchmark
+    public TrainingController.Result epoch() {
+        return new TrainingController(model, loader, config).train(training, null);
+    }
+}
@@ -0,0 +1,46 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Training throughput (samples/sec) of the full-batch loop versus mini-batches streamed
+// through the prefetching iterator.
+// Usage: TrainingThroughputBenchmark [rows] [epochs] [batchSize]
+public class TrainingThroughputBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int epochs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        Path file = CsvLoadBenchmark.createSyntheticFile(rows);
+        try {
+            HousePricePredictionANN app = new HousePricePredictionANN(file.toString());
+            int trainingRows = (int) (rows * 0.8);
+
+            // Warm-up so JIT and native library loading are not measured
+            app.buildModel();
+            app.trainModel(new TrainingConfig().setEpochs(1).setBatchSize(batchSize));
+
+            measure(app, "full-batch", new TrainingConfig().setEpochs(epochs), trainingRows);
+            measure(app, "mini-batch " + batchSize, new TrainingConfig().setEpochs(epochs).setBatchSize(batchSize), trainingRows);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void measure(HousePricePredictionANN app, String name, TrainingConfig config, int trainingRows) {
+        app.buildModel();
+        long start = System.nanoTime();
+        app.trainModel(config);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double samples = (double) trainingRows * config.getEpochs();
+        long updates = config.isMiniBatch()
+                ? (long) config.getEpochs() * ((trainingRows + config.getBatchSize() - 1) / config.getBatchSize())
+                : config.getEpochs();
+        System.out.printf("%-16s %d epochs in %.2f s  %12.0f samples/s  %8d parameter updates%n",
+                name, config.getEpochs(), seconds, samples / seconds, updates);
+    }
+}
@@ -0,0 +1,162 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Scores many rows with one forward pass per batch instead of one per row.
+// predict() takes a feature matrix; score() streams a CSV file through the memory-mapped
+// parser in chunks and writes one prediction per input row to an output CSV. The input is
+// either the labeled Housing schema or the 12 feature columns of listings to be priced.
+public class BatchScorer {
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final MultiLayerNetwork network;
+    private final FeatureScaler scaler;
+
+    public BatchScorer(MultiLayerNetwork network, FeatureScaler scaler) {
+        this.network = network;
+        this.scaler = scaler;
+    }
+
+    public BatchScorer(ModelBundle bundle) {
+        this(bundle.getNetwork(), bundle.getScaler());
+    }
+
+    // Prices for the rows of a raw feature matrix (one row per listing)
+    public double[] predict(double[][] features) {
+        int numFeatures = HousingDataset.NUM_FEATURES;
+        float[] normalized = new float[features.length * numFeatures];
+        double[] row = new double[numFeatures];
+        for (int r = 0; r < features.length; r++) {
+            scaler.transformFeatures(features[r], row);
+            for (int i = 0; i < numFeatures; i++) {
+                normalized[r * numFeatures + i] = (float) row[i];
+            }
+        }
+
+        double[] prices = new double[features.length];
+        predictNormalized(normalized, features.length, prices);
+        return prices;
+    }
+
+    // Forward pass over `rows` normalized rows, denormalized prices are written to dest
+    private void predictNormalized(float[] normalized, int rows, double[] dest) {
+        int length = rows * HousingDataset.NUM_FEATURES;
+        if (normalized.length != length) {
+            // Last, partial chunk of a stream
+            normalized = Arrays.copyOf(normalized, length);
+        }
+        INDArray input = Nd4j.create(normalized, new long[]{rows, HousingDataset.NUM_FEATURES}, DataType.FLOAT);
+        float[] output = network.output(input).toFloatVector();
+        for (int r = 0; r < rows; r++) {
+            dest[r] = scaler.denormalizePrice(output[r]);
+        }
+    }
+
+    // Stream the input CSV and write "row,price,predicted_price" lines, or "row,predicted_price"
+    // when the header does not start with a price column. Returns the number of rows scored.
+    public long score(Path input, Path output, int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        long start = System.nanoTime();
+        boolean labeled = HousingCsvParser.hasPriceColumn(input);
+        long rows;
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            writer.write(labeled ? "row,price,predicted_price" : "row,predicted_price");
+            writer.newLine();
+
+            Chunk chunk = new Chunk(writer, chunkSize, labeled);
+            try {
+                HousingCsvParser.parse(input, labeled, chunk::add);
+                chunk.flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            rows = chunk.rowsWritten;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Scored %d rows in %.2f s (%.0f rows/s)%n", rows, seconds, rows / seconds);
+        return rows;
+    }
+
+    // Rows buffered until the next forward pass
+    private class Chunk {
+        private final BufferedWriter writer;
+        private final int capacity;
+        private final boolean labeled;
+        private final float[] normalized;
+        private final double[] prices;
+        private final double[] predictions;
+        private final double[] row = new double[HousingDataset.NUM_FEATURES];
+        private final StringBuilder line = new StringBuilder();
+        private int size;
+        private long rowsWritten;
+
+        Chunk(BufferedWriter writer, int capacity, boolean labeled) {
+            this.writer = writer;
+            this.capacity = capacity;
+            this.labeled = labeled;
+            this.normalized = new float[capacity * HousingDataset.NUM_FEATURES];
+            this.prices = new double[capacity];
+            this.predictions = new double[capacity];
+        }
+
+        void add(double price, double[] features) {
+            scaler.transformFeatures(features, row);
+            int offset = size * HousingDataset.NUM_FEATURES;
+            for (int i = 0; i < row.length; i++) {
+                normalized[offset + i] = (float) row[i];
+            }
+            prices[size++] = price;
+            if (size == capacity) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (size == 0) {
+                return;
+            }
+            predictNormalized(normalized, size, predictions);
+            try {
+                for (int r = 0; r < size; r++) {
+                    line.setLength(0);
+                    line.append(rowsWritten++).append(',');
+                    if (labeled) {
+                        line.append(Math.round(prices[r])).append(',');
+                    }
+                    line.append(Math.round(predictions[r]));
+                    writer.write(line.toString());
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            size = 0;
+        }
+    }
+
+    // Usage: BatchScorer <model bundle> <input csv> <output csv> [chunkSize]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BatchScorer <model bundle> <input csv> <output csv> [chunkSize]");
+            System.exit(1);
+        }
+        int chunkSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_CHUNK_SIZE;
+
+        BatchScorer scorer = new BatchScorer(ModelBundle.load(Paths.get(args[0])));
+        scorer.score(Paths.get(args[1]), Paths.get(args[2]), chunkSize);
+    }
+}
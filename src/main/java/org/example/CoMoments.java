@@ -0,0 +1,223 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Running first and second co-moments of a set of columns: the row count, the mean of
+// every column and the sums of centered cross-products. Partial results computed on
+// separate chunks of rows are combined with merge().
+public class CoMoments {
+    private final int dimension;
+    private long count;
+    private final double[] mean;
+    // Sums of (x_i - mean_i) * (x_j - mean_j), dimension x dimension, row-major.
+    // Only the upper triangle (j >= i) is maintained.
+    private final double[] comoment;
+
+    public CoMoments(int dimension) {
+        this.dimension = dimension;
+        this.mean = new double[dimension];
+        this.comoment = new double[dimension * dimension];
+    }
+
+    // Add a single row (Welford update of the means and co-moments)
+    public void add(double[] row) {
+        long newCount = count + 1;
+        double factor = (double) count / newCount;
+        double[] delta = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            delta[i] = row[i] - mean[i];
+        }
+        for (int i = 0; i < dimension; i++) {
+            int base = i * dimension;
+            for (int j = i; j < dimension; j++) {
+                comoment[base + j] += delta[i] * delta[j] * factor;
+            }
+            mean[i] += delta[i] / newCount;
+        }
+        count = newCount;
+    }
+
+    // Accumulate a block of rows (rows x dimension, row-major). The block is centered on
+    // its own mean first, then merged, which keeps the sums numerically stable.
+    public void addBlock(double[] block, int rows, double[] centered) {
+        if (rows == 0) {
+            return;
+        }
+
+        CoMoments blockMoments = new CoMoments(dimension);
+        double[] blockMean = blockMoments.mean;
+        double[] blockComoment = blockMoments.comoment;
+
+        for (int r = 0; r < rows; r++) {
+            int rowOffset = r * dimension;
+            for (int i = 0; i < dimension; i++) {
+                blockMean[i] += block[rowOffset + i];
+            }
+        }
+        for (int i = 0; i < dimension; i++) {
+            blockMean[i] /= rows;
+        }
+
+        for (int r = 0; r < rows; r++) {
+            int rowOffset = r * dimension;
+            for (int i = 0; i < dimension; i++) {
+                centered[i] = block[rowOffset + i] - blockMean[i];
+            }
+            for (int i = 0; i < dimension; i++) {
+                double ci = centered[i];
+                int base = i * dimension;
+                for (int j = i; j < dimension; j++) {
+                    blockComoment[base + j] += ci * centered[j];
+                }
+            }
+        }
+        blockMoments.count = rows;
+
+        merge(blockMoments);
+    }
+
+    // Combine with the co-moments of another, disjoint set of rows
+    public void merge(CoMoments other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            System.arraycopy(other.mean, 0, mean, 0, dimension);
+            System.arraycopy(other.comoment, 0, comoment, 0, comoment.length);
+            return;
+        }
+
+        long total = count + other.count;
+        double weight = (double) count * other.count / total;
+        double[] delta = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            delta[i] = other.mean[i] - mean[i];
+        }
+
+        for (int i = 0; i < dimension; i++) {
+            int base = i * dimension;
+            for (int j = i; j < dimension; j++) {
+                comoment[base + j] += other.comoment[base + j] + delta[i] * delta[j] * weight;
+            }
+        }
+        for (int i = 0; i < dimension; i++) {
+            mean[i] += delta[i] * other.count / total;
+        }
+        count = total;
+    }
+
+    // Remove the contribution of a subset of the rows (inverse of merge)
+    public void subtract(CoMoments other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.count > count) {
+            throw new IllegalArgumentException("Cannot remove " + other.count + " rows from " + count);
+        }
+        if (other.count == count) {
+            clear();
+            return;
+        }
+
+        long remaining = count - other.count;
+        double[] delta = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            double remainingMean = (mean[i] * count - other.mean[i] * other.count) / remaining;
+            delta[i] = other.mean[i] - remainingMean;
+            mean[i] = remainingMean;
+        }
+
+        double weight = (double) remaining * other.count / count;
+        for (int i = 0; i < dimension; i++) {
+            int base = i * dimension;
+            for (int j = i; j < dimension; j++) {
+                comoment[base + j] -= other.comoment[base + j] + delta[i] * delta[j] * weight;
+            }
+        }
+        count = remaining;
+    }
+
+    public void clear() {
+        count = 0;
+        Arrays.fill(mean, 0.0);
+        Arrays.fill(comoment, 0.0);
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean(int column) {
+        return mean[column];
+    }
+
+    public double[] getMeans() {
+        return mean.clone();
+    }
+
+    // Population covariance
+    public double getCovariance(int i, int j) {
+        if (count == 0) {
+            return 0.0;
+        }
+        return (i <= j ? comoment[i * dimension + j] : comoment[j * dimension + i]) / count;
+    }
+
+    public double getVariance(int column) {
+        return getCovariance(column, column);
+    }
+
+    // Population standard deviation
+    public double getStdDev(int column) {
+        return Math.sqrt(Math.max(0.0, getVariance(column)));
+    }
+
+    public double[] getStdDevs() {
+        double[] stdDevs = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            stdDevs[i] = getStdDev(i);
+        }
+        return stdDevs;
+    }
+
+    public double[][] covarianceMatrix() {
+        double[][] covariance = new double[dimension][dimension];
+        for (int i = 0; i < dimension; i++) {
+            for (int j = i; j < dimension; j++) {
+                covariance[i][j] = getCovariance(i, j);
+                covariance[j][i] = covariance[i][j];
+            }
+        }
+        return covariance;
+    }
+
+    // Pearson correlation matrix, 1 on the diagonal and 0 for constant columns
+    public double[][] correlationMatrix() {
+        double[][] correlation = new double[dimension][dimension];
+        for (int i = 0; i < dimension; i++) {
+            correlation[i][i] = 1.0;
+            double sii = comoment[i * dimension + i];
+            for (int j = i + 1; j < dimension; j++) {
+                double sjj = comoment[j * dimension + j];
+                double value = 0;
+                if (sii > 0 && sjj > 0) {
+                    value = comoment[i * dimension + j] / (Math.sqrt(sii) * Math.sqrt(sjj));
+                }
+                correlation[i][j] = value;
+                correlation[j][i] = value;
+            }
+        }
+        return correlation;
+    }
+
+    public CoMoments copy() {
+        CoMoments copy = new CoMoments(dimension);
+        copy.merge(this);
+        return copy;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+// Single-row predictor prepared once per model: the network and its scaling are
+// exported to an InferenceEngine (float32 by default, or int8 weights) and the forward
+// pass runs on a preallocated scratch buffer, so a prediction allocates nothing and
+// never crosses into ND4J.
+// An instance holds its scratch buffer and must be used by one thread at a time.
+public class CompiledPredictor {
+    private final InferenceEngine engine;
+    private final float[] scratch;
+
+    public CompiledPredictor(MultiLayerNetwork network, FeatureScaler scaler) {
+        this(network, scaler, InferencePrecision.FLOAT32);
+    }
+
+    public CompiledPredictor(MultiLayerNetwork network, FeatureScaler scaler, InferencePrecision precision) {
+        this(precision.createEngine(network, scaler));
+    }
+
+    public CompiledPredictor(ModelBundle bundle) {
+        this(bundle.getNetwork(), bundle.getScaler());
+    }
+
+    public CompiledPredictor(InferenceEngine engine) {
+        this.engine = engine;
+        this.scratch = engine.newScratch();
+    }
+
+    public double predict(double[] features) {
+        return engine.predict(features, scratch);
+    }
+}
@@ -0,0 +1,240 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// k-fold cross-validation. The folds are index ranges over a single shuffled
+// permutation: the permutation is stored twice in a row, so the training rows of
+// every fold (everything after the test range, wrapping around) are one contiguous
+// HousingDataView as well. The k fold models are trained in parallel.
+public class CrossValidation {
+
+    // Metrics of one fold on its held-out rows (normalized price)
+    public static class FoldResult {
+        private final int fold;
+        private final int trainingSize;
+        private final int testSize;
+        private final double mse;
+        private final double r2;
+        private final int epochs;
+        private final long elapsedMillis;
+
+        FoldResult(int fold, int trainingSize, int testSize, double mse, double r2, int epochs, long elapsedMillis) {
+            this.fold = fold;
+            this.trainingSize = trainingSize;
+            this.testSize = testSize;
+            this.mse = mse;
+            this.r2 = r2;
+            this.epochs = epochs;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getFold() {
+            return fold;
+        }
+
+        public int getTrainingSize() {
+            return trainingSize;
+        }
+
+        public int getTestSize() {
+            return testSize;
+        }
+
+        public double getMse() {
+            return mse;
+        }
+
+        public double getRmse() {
+            return Math.sqrt(mse);
+        }
+
+        public double getR2() {
+            return r2;
+        }
+
+        public int getEpochs() {
+            return epochs;
+        }
+
+        // Wall-clock time to train and evaluate the fold
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    private final HousingDataLoader dataLoader;
+    private ModelConfig modelConfig = new ModelConfig();
+    private TrainingConfig trainingConfig = new TrainingConfig().setValidationFraction(0.1).setPatience(100);
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long seed = 42;
+
+    public CrossValidation(HousingDataLoader dataLoader) {
+        this.dataLoader = dataLoader;
+    }
+
+    public CrossValidation setModelConfig(ModelConfig modelConfig) {
+        this.modelConfig = modelConfig;
+        return this;
+    }
+
+    public CrossValidation setTrainingConfig(TrainingConfig trainingConfig) {
+        this.trainingConfig = trainingConfig;
+        return this;
+    }
+
+    // Number of folds trained at the same time
+    public CrossValidation setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // Seed of the permutation the folds are cut from
+    public CrossValidation setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public List<FoldResult> run(int k) {
+        HousingDataset dataset = dataLoader.getAllData();
+        int size = dataset.size();
+        if (k < 2 || k > size) {
+            throw new IllegalArgumentException("Invalid number of folds " + k + " for " + size + " rows");
+        }
+
+        // Permutation followed by a copy of itself, so [end of fold, start of fold + size)
+        // holds every row outside the fold
+        int[] rows = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = rows[i - 1];
+            rows[i - 1] = rows[j];
+            rows[j] = tmp;
+        }
+        System.arraycopy(rows, 0, rows, size, size);
+
+        long start = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(k, parallelism));
+        List<FoldResult> results = new ArrayList<>();
+        try {
+            List<Future<FoldResult>> futures = new ArrayList<>();
+            for (int fold = 0; fold < k; fold++) {
+                int from = (int) ((long) fold * size / k);
+                int to = (int) ((long) (fold + 1) * size / k);
+                HousingDataView testData = new HousingDataView(dataset, rows, from, to);
+                HousingDataView trainingData = new HousingDataView(dataset, rows, to, from + size);
+                int foldIndex = fold;
+                futures.add(pool.submit(() -> runFold(foldIndex, trainingData, testData)));
+            }
+            for (Future<FoldResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cross-validation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Training a fold failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println(k + "-fold cross-validation finished in " + (System.currentTimeMillis() - start) +
+                " ms on " + Math.min(k, parallelism) + " workers");
+        return results;
+    }
+
+    private FoldResult runFold(int fold, HousingDataView trainingData, HousingDataView testData) {
+        long start = System.currentTimeMillis();
+
+        // Early stopping uses the end of the training rows, never the test fold
+        HousingDataView validationData = null;
+        int validationSize = (int) (trainingData.size() * trainingConfig.getValidationFraction());
+        if (validationSize > 0) {
+            validationData = trainingData.subView(trainingData.size() - validationSize, trainingData.size());
+            trainingData = trainingData.subView(0, trainingData.size() - validationSize);
+        }
+
+        MultiLayerNetwork network = modelConfig.createNetwork(dataLoader.getInputDimension());
+        TrainingConfig config = trainingConfig.copy().setWorkers(1);
+        TrainingController.Result result = new TrainingController(network, dataLoader, config)
+                .train(trainingData, validationData);
+
+        INDArray targets = Nd4j.create(dataLoader.getTargetMatrix(testData));
+        INDArray predictions = network.output(Nd4j.create(dataLoader.getFeatureMatrix(testData)));
+        double mse = TrainingController.meanSquaredError(predictions, targets);
+
+        double mean = targets.meanNumber().doubleValue();
+        double ssTot = 0.0;
+        for (int i = 0; i < targets.rows(); i++) {
+            double diff = targets.getDouble(i, 0) - mean;
+            ssTot += diff * diff;
+        }
+        double r2 = 1 - (mse * targets.rows()) / ssTot;
+
+        return new FoldResult(fold, trainingData.size(), testData.size(), mse, r2, result.getEpochs(),
+                System.currentTimeMillis() - start);
+    }
+
+    public static void printReport(List<FoldResult> results) {
+        System.out.println("\nFold  Train  Test  Epochs  Time(ms)      MSE     RMSE       R²");
+        for (FoldResult r : results) {
+            System.out.printf("%4d  %5d  %4d  %6d  %8d  %.5f  %.5f  %.5f%n", r.getFold(), r.getTrainingSize(),
+                    r.getTestSize(), r.getEpochs(), r.getElapsedMillis(), r.getMse(), r.getRmse(), r.getR2());
+        }
+
+        double[] mse = results.stream().mapToDouble(FoldResult::getMse).toArray();
+        double[] rmse = results.stream().mapToDouble(FoldResult::getRmse).toArray();
+        double[] r2 = results.stream().mapToDouble(FoldResult::getR2).toArray();
+        System.out.printf("MSE:  mean %.5f, variance %.3e%n", mean(mse), variance(mse));
+        System.out.printf("RMSE: mean %.5f, variance %.3e%n", mean(rmse), variance(rmse));
+        System.out.printf("R²:   mean %.5f, variance %.3e%n", mean(r2), variance(r2));
+    }
+
+    static double mean(double[] values) {
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    // Sample variance (n - 1)
+    static double variance(double[] values) {
+        if (values.length < 2) {
+            return 0.0;
+        }
+        double mean = mean(values);
+        double sum = 0.0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return sum / (values.length - 1);
+    }
+
+    // Usage: CrossValidation [k]
+    public static void main(String[] args) {
+        int k = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        HousingDataLoader dataLoader = new HousingDataLoader();
+        dataLoader.loadData("src/main/resources/Housing.csv");
+
+        List<FoldResult> results = new CrossValidation(dataLoader).run(k);
+        printReport(results);
+    }
+}
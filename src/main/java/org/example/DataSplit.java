@@ -0,0 +1,56 @@
+package org.example;
+
+// Immutable train/test split of a dataset: a seeded permutation of the row indices cut
+// at trainingRatio. The views share the permutation, so handing them out is free and
+// nothing is shuffled after construction.
+public class DataSplit {
+    private final double trainingRatio;
+    private final long seed;
+    private final HousingDataView training;
+    private final HousingDataView testing;
+
+    DataSplit(HousingDataset dataset, int[] permutation, double trainingRatio, long seed) {
+        if (trainingRatio <= 0 || trainingRatio >= 1) {
+            throw new IllegalArgumentException("Training ratio must be in (0, 1): " + trainingRatio);
+        }
+        int trainingSize = (int) (permutation.length * trainingRatio);
+        this.trainingRatio = trainingRatio;
+        this.seed = seed;
+        this.training = new HousingDataView(dataset, permutation, 0, trainingSize);
+        this.testing = new HousingDataView(dataset, permutation, trainingSize, permutation.length);
+    }
+
+    public double getTrainingRatio() {
+        return trainingRatio;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public HousingDataView getTraining() {
+        return training;
+    }
+
+    public HousingDataView getTesting() {
+        return testing;
+    }
+
+    // Training rows minus the validation tail carved out for early stopping
+    public HousingDataView getTraining(double validationFraction) {
+        return training.subView(0, training.size() - validationSize(validationFraction));
+    }
+
+    // Last validationFraction of the training rows, null when that is empty
+    public HousingDataView getValidation(double validationFraction) {
+        int validationSize = validationSize(validationFraction);
+        return validationSize > 0 ? training.subView(training.size() - validationSize, training.size()) : null;
+    }
+
+    private int validationSize(double validationFraction) {
+        if (validationFraction < 0 || validationFraction >= 1) {
+            throw new IllegalArgumentException("Validation fraction must be in [0, 1): " + validationFraction);
+        }
+        return (int) (training.size() * validationFraction);
+    }
+}
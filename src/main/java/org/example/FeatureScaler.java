@@ -0,0 +1,406 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+// Streaming feature/target scaler.
+// Statistics (min/max, mean/variance with Welford's algorithm and optionally a row
+// reservoir for quantiles) are updated one row at a time while the data is parsed, and
+// partial scalers fitted on separate chunks can be merged. Column layout follows
+// HousingDataset: the 12 features first, the price last.
+public class FeatureScaler {
+
+    public enum Mode {
+        // (x - min) / (max - min)
+        MIN_MAX,
+        // (x - mean) / standard deviation
+        Z_SCORE,
+        // (x - median) / interquartile range, needs the quantile reservoir
+        ROBUST
+    }
+
+    public static final int DEFAULT_RESERVOIR_SIZE = 10_000;
+
+    // Rows per chunk when fitting a dataset in parallel
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int NUM_COLUMNS = HousingDataset.NUM_COLUMNS;
+    private static final int PRICE_COLUMN = HousingDataset.PRICE_COLUMN;
+
+    private Mode mode;
+    private long count;
+    private final double[] min = new double[NUM_COLUMNS];
+    private final double[] max = new double[NUM_COLUMNS];
+    private final double[] mean = new double[NUM_COLUMNS];
+    private final double[] m2 = new double[NUM_COLUMNS];
+
+    // Uniform sample of whole rows (reservoir sampling), null when quantiles are disabled
+    private final int reservoirSize;
+    private double[] reservoir;
+    private int reservoirCount;
+    private final Random random;
+
+    // Fitted parameters: normalized = (x - offset) / range
+    private final double[] offset = new double[NUM_COLUMNS];
+    private final double[] range = new double[NUM_COLUMNS];
+    private boolean fitted;
+    // Mode of the parameters above, null until they are first set; they stay usable as
+    // reference for fit(tolerance) after new rows are accepted
+    private Mode parametersMode;
+
+    public FeatureScaler(Mode mode) {
+        this(mode, mode == Mode.ROBUST ? DEFAULT_RESERVOIR_SIZE : 0);
+    }
+
+    // reservoirSize = 0 disables quantile tracking
+    public FeatureScaler(Mode mode, int reservoirSize) {
+        this(mode, reservoirSize, true);
+    }
+
+    private FeatureScaler(Mode mode, int reservoirSize, boolean checkReservoir) {
+        if (checkReservoir && mode == Mode.ROBUST && reservoirSize <= 0) {
+            throw new IllegalArgumentException("Robust scaling needs a quantile reservoir");
+        }
+        this.mode = mode;
+        this.reservoirSize = reservoirSize;
+        this.reservoir = reservoirSize > 0 ? new double[reservoirSize * NUM_COLUMNS] : null;
+        this.random = new Random(42);
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    // Scaler restored from saved parameters (offset/range per column), without statistics.
+    // Only the transform methods can be used on it.
+    public static FeatureScaler fromParameters(Mode mode, double[] offset, double[] range) {
+        if (offset.length != NUM_COLUMNS || range.length != NUM_COLUMNS) {
+            throw new IllegalArgumentException("Expected " + NUM_COLUMNS + " scaling parameters");
+        }
+        FeatureScaler scaler = new FeatureScaler(mode, 0, false);
+        System.arraycopy(offset, 0, scaler.offset, 0, NUM_COLUMNS);
+        System.arraycopy(range, 0, scaler.range, 0, NUM_COLUMNS);
+        scaler.fitted = true;
+        scaler.parametersMode = mode;
+        return scaler;
+    }
+
+    // Frozen copy of the fitted parameters, unaffected by later updates of this scaler
+    public FeatureScaler snapshot() {
+        checkFitted();
+        return fromParameters(mode, offset, range);
+    }
+
+    // Fit a scaler over the whole dataset, chunks are fitted in parallel and merged
+    public static FeatureScaler fit(HousingDataset dataset, Mode mode) {
+        int reservoirSize = mode == Mode.ROBUST ? DEFAULT_RESERVOIR_SIZE : 0;
+        int chunks = (dataset.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        FeatureScaler scaler = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    FeatureScaler partial = new FeatureScaler(mode, reservoirSize);
+                    partial.accept(dataset, chunk * CHUNK_SIZE, Math.min(dataset.size(), (chunk + 1) * CHUNK_SIZE));
+                    return partial;
+                })
+                .reduce((a, b) -> {
+                    a.merge(b);
+                    return a;
+                })
+                .orElseGet(() -> new FeatureScaler(mode, reservoirSize));
+
+        scaler.fit();
+        return scaler;
+    }
+
+    // Update the statistics with one row (same signature as HousingCsvParser.RowHandler)
+    public void accept(double price, double[] features) {
+        count++;
+        double invCount = 1.0 / count;
+        for (int i = 0; i < NUM_COLUMNS; i++) {
+            double value = i == PRICE_COLUMN ? price : features[i];
+            if (value < min[i]) {
+                min[i] = value;
+            }
+            if (value > max[i]) {
+                max[i] = value;
+            }
+            double delta = value - mean[i];
+            mean[i] += delta * invCount;
+            m2[i] += delta * (value - mean[i]);
+        }
+
+        if (reservoir != null) {
+            int slot = -1;
+            if (reservoirCount < reservoirSize) {
+                slot = reservoirCount++;
+            } else {
+                long candidate = (long) (random.nextDouble() * count);
+                if (candidate < reservoirSize) {
+                    slot = (int) candidate;
+                }
+            }
+            if (slot >= 0) {
+                System.arraycopy(features, 0, reservoir, slot * NUM_COLUMNS, NUM_COLUMNS - 1);
+                reservoir[slot * NUM_COLUMNS + PRICE_COLUMN] = price;
+            }
+        }
+        fitted = false;
+    }
+
+    // Update the statistics with the rows [from, to) of a dataset
+    public void accept(HousingDataset dataset, int from, int to) {
+        double[] features = new double[HousingDataset.NUM_FEATURES];
+        for (int row = from; row < to; row++) {
+            dataset.copyRawFeatures(row, features, 0);
+            accept(dataset.getPrice(row), features);
+        }
+    }
+
+    // Combine the statistics of a scaler fitted on another chunk of rows
+    public void merge(FeatureScaler other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        for (int i = 0; i < NUM_COLUMNS; i++) {
+            min[i] = Math.min(min[i], other.min[i]);
+            max[i] = Math.max(max[i], other.max[i]);
+
+            // Chan et al. parallel update of mean and sum of squared deviations
+            double delta = other.mean[i] - mean[i];
+            mean[i] += delta * other.count / total;
+            m2[i] += other.m2[i] + delta * delta * ((double) count * other.count / total);
+        }
+
+        if (reservoir != null && other.reservoir != null) {
+            mergeReservoir(other);
+        }
+        count = total;
+        fitted = false;
+    }
+
+    // Draw each slot of the merged reservoir from this or the other sample in proportion
+    // to the number of rows each one represents
+    private void mergeReservoir(FeatureScaler other) {
+        double[] mine = shuffledRows(reservoir, reservoirCount);
+        double[] theirs = shuffledRows(other.reservoir, other.reservoirCount);
+        int mergedCount = Math.min(reservoirSize, reservoirCount + other.reservoirCount);
+        double[] merged = new double[reservoirSize * NUM_COLUMNS];
+
+        int taken = 0;
+        int a = 0;
+        int b = 0;
+        double probability = (double) count / (count + other.count);
+        while (taken < mergedCount) {
+            boolean fromMine = b == other.reservoirCount || (a < reservoirCount && random.nextDouble() < probability);
+            if (fromMine) {
+                System.arraycopy(mine, a++ * NUM_COLUMNS, merged, taken * NUM_COLUMNS, NUM_COLUMNS);
+            } else {
+                System.arraycopy(theirs, b++ * NUM_COLUMNS, merged, taken * NUM_COLUMNS, NUM_COLUMNS);
+            }
+            taken++;
+        }
+
+        reservoir = merged;
+        reservoirCount = mergedCount;
+    }
+
+    private double[] shuffledRows(double[] rows, int rowCount) {
+        double[] copy = Arrays.copyOf(rows, rowCount * NUM_COLUMNS);
+        double[] tmp = new double[NUM_COLUMNS];
+        for (int i = rowCount; i > 1; i--) {
+            int j = random.nextInt(i);
+            System.arraycopy(copy, (i - 1) * NUM_COLUMNS, tmp, 0, NUM_COLUMNS);
+            System.arraycopy(copy, j * NUM_COLUMNS, copy, (i - 1) * NUM_COLUMNS, NUM_COLUMNS);
+            System.arraycopy(tmp, 0, copy, j * NUM_COLUMNS, NUM_COLUMNS);
+        }
+        return copy;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        if (mode == Mode.ROBUST && !hasQuantiles()) {
+            throw new IllegalStateException("Robust scaling needs a quantile reservoir");
+        }
+        this.mode = mode;
+        fitted = false;
+    }
+
+    public boolean hasQuantiles() {
+        return reservoir != null;
+    }
+
+    // Compute the scaling parameters of the current mode from the statistics.
+    // Returns true when the parameters differ from the previous fit.
+    public boolean fit() {
+        return fit(0.0);
+    }
+
+    // Same, but the previous parameters are kept when no offset or range moved by more than
+    // tolerance x the previous range, so rows normalized with them stay valid (e.g. the
+    // z-score mean drifting a little with every appended batch). Returns true on a change.
+    public boolean fit(double tolerance) {
+        if (count == 0) {
+            throw new IllegalStateException("No rows to fit the scaler on");
+        }
+        double[] previousOffset = offset.clone();
+        double[] previousRange = range.clone();
+        Mode previousMode = parametersMode;
+
+        for (int i = 0; i < NUM_COLUMNS; i++) {
+            switch (mode) {
+                case MIN_MAX:
+                    offset[i] = min[i];
+                    range[i] = max[i] - min[i];
+                    break;
+                case Z_SCORE:
+                    offset[i] = mean[i];
+                    range[i] = getStdDev(i);
+                    break;
+                case ROBUST:
+                    offset[i] = getQuantile(i, 0.5);
+                    range[i] = getQuantile(i, 0.75) - getQuantile(i, 0.25);
+                    // Binary and low-cardinality columns often have an empty IQR
+                    if (range[i] == 0) {
+                        range[i] = max[i] - min[i];
+                    }
+                    break;
+            }
+        }
+        fitted = true;
+        parametersMode = mode;
+        if (previousMode != mode) {
+            return true;
+        }
+        for (int i = 0; i < NUM_COLUMNS; i++) {
+            double limit = tolerance * Math.abs(previousRange[i]);
+            if (!(Math.abs(offset[i] - previousOffset[i]) <= limit) || !(Math.abs(range[i] - previousRange[i]) <= limit)) {
+                return true;
+            }
+        }
+        System.arraycopy(previousOffset, 0, offset, 0, NUM_COLUMNS);
+        System.arraycopy(previousRange, 0, range, 0, NUM_COLUMNS);
+        return false;
+    }
+
+    // Take over the fitted parameters of another scaler, e.g. when the statistics were
+    // rebuilt from other parts; the next fit(tolerance) compares against them
+    public void setParameters(FeatureScaler other) {
+        if (other.parametersMode == null) {
+            throw new IllegalStateException("Scaler has not been fitted");
+        }
+        System.arraycopy(other.offset, 0, offset, 0, NUM_COLUMNS);
+        System.arraycopy(other.range, 0, range, 0, NUM_COLUMNS);
+        parametersMode = other.parametersMode;
+    }
+
+    // Write the normalized features and target of every row into the dataset's own blocks
+    public void transform(HousingDataset dataset) {
+        transform(dataset, 0, dataset.size());
+    }
+
+    // Normalize only the rows [from, to), e.g. a batch appended with unchanged parameters
+    public void transform(HousingDataset dataset, int from, int to) {
+        checkFitted();
+        int numFeatures = HousingDataset.NUM_FEATURES;
+        float[] normalizedFeatures = dataset.getNormalizedFeatures();
+        float[] normalizedTargets = dataset.getNormalizedTargets();
+        double[] features = new double[numFeatures];
+
+        for (int row = from; row < to; row++) {
+            dataset.copyRawFeatures(row, features, 0);
+            int rowOffset = row * numFeatures;
+            for (int i = 0; i < numFeatures; i++) {
+                normalizedFeatures[rowOffset + i] = (float) normalize(i, features[i]);
+            }
+            normalizedTargets[row] = (float) normalize(PRICE_COLUMN, dataset.getPrice(row));
+        }
+    }
+
+    // Normalize a raw feature vector into dest
+    public void transformFeatures(double[] features, double[] dest) {
+        checkFitted();
+        for (int i = 0; i < HousingDataset.NUM_FEATURES; i++) {
+            dest[i] = normalize(i, features[i]);
+        }
+    }
+
+    public double normalizePrice(double price) {
+        checkFitted();
+        return normalize(PRICE_COLUMN, price);
+    }
+
+    public double denormalizePrice(double normalizedPrice) {
+        checkFitted();
+        return normalizedPrice * range[PRICE_COLUMN] + offset[PRICE_COLUMN];
+    }
+
+    private double normalize(int column, double value) {
+        // Avoid division by zero
+        if (range[column] == 0) {
+            return 0.0;
+        }
+        return (value - offset[column]) / range[column];
+    }
+
+    private void checkFitted() {
+        if (!fitted) {
+            throw new IllegalStateException("Scaler has not been fitted");
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin(int column) {
+        return min[column];
+    }
+
+    public double getMax(int column) {
+        return max[column];
+    }
+
+    public double getMean(int column) {
+        return mean[column];
+    }
+
+    // Population standard deviation
+    public double getStdDev(int column) {
+        return count == 0 ? 0.0 : Math.sqrt(m2[column] / count);
+    }
+
+    // Approximate quantile estimated from the reservoir sample
+    public double getQuantile(int column, double q) {
+        if (reservoir == null) {
+            throw new IllegalStateException("Quantile tracking is disabled");
+        }
+        if (reservoirCount == 0) {
+            return Double.NaN;
+        }
+        double[] values = new double[reservoirCount];
+        for (int i = 0; i < reservoirCount; i++) {
+            values[i] = reservoir[i * NUM_COLUMNS + column];
+        }
+        Arrays.sort(values);
+
+        double position = q * (reservoirCount - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(lower + 1, reservoirCount - 1);
+        return values[lower] + (position - lower) * (values[upper] - values[lower]);
+    }
+
+    // Offset/range of the fitted transformation, normalized = (x - offset) / range
+    public double getOffset(int column) {
+        checkFitted();
+        return offset[column];
+    }
+
+    public double getRange(int column) {
+        checkFitted();
+        return range[column];
+    }
+}
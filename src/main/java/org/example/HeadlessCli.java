@@ -0,0 +1,480 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Command-line mode for servers without display, dispatched from HousePricePredictionANN.main:
+//   train      [--data csv] [--model zip] [--epochs n] [--batch-size n] [--threads n]
+//              [--patience n] [--validation f] [--profile csv|json]
+//   evaluate   [--data csv] [--model zip]
+//   score-file --input csv --output csv [--model zip] [--chunk-size n]
+//   benchmark  [--data csv] [--model zip] [--seconds n] [--threads n] [--batch-rows n] [--precision p]
+// Without --data, the dataset of the source tree is used when run from the repository and
+// the copy packaged in the jar otherwise; score-file does not load any dataset.
+// No AWT or Swing class is initialized. Each command prints one JSON object with its timings
+// and metrics on stdout; everything else (progress, DL4J logging) goes to stderr.
+// Unknown or repeated options are usage errors.
+// Exit codes: 0 success, 1 failure, 2 usage error, 3 trained model rejected by the registry.
+public class HeadlessCli {
+    private static final List<String> COMMANDS = Arrays.asList("train", "evaluate", "score-file", "benchmark");
+    // Options accepted by each command
+    private static final Map<String, List<String>> OPTIONS = new HashMap<>();
+
+    static {
+        OPTIONS.put("train", Arrays.asList("data", "model", "epochs", "batch-size", "threads", "patience",
+                "validation", "profile"));
+        OPTIONS.put("evaluate", Arrays.asList("data", "model"));
+        OPTIONS.put("score-file", Arrays.asList("input", "output", "model", "chunk-size"));
+        OPTIONS.put("benchmark", Arrays.asList("data", "model", "seconds", "threads", "batch-rows", "precision"));
+    }
+
+    // Dataset packaged with the application (src/main/resources)
+    private static final String DATASET_RESOURCE = "/Housing.csv";
+
+    static final int OK = 0;
+    static final int FAILED = 1;
+    static final int USAGE = 2;
+    static final int REJECTED = 3;
+
+    private static final String USAGE_TEXT = "Usage: <train|evaluate|score-file|benchmark> [--option value]...\n" +
+            "  train      [--data csv] [--model zip] [--epochs n] [--batch-size n] [--threads n]\n" +
+            "             [--patience n] [--validation f] [--profile csv|json]\n" +
+            "  evaluate   [--data csv] [--model zip]\n" +
+            "  score-file --input csv --output csv [--model zip] [--chunk-size n]\n" +
+            "  benchmark  [--data csv] [--model zip] [--seconds n] [--threads n] [--batch-rows n] [--precision p]";
+
+    private final PrintStream out;
+    private final Map<String, String> options;
+    // Insertion-ordered JSON result
+    private final Map<String, Object> result = new LinkedHashMap<>();
+    private final Map<String, Object> timings = new LinkedHashMap<>();
+
+    private HeadlessCli(PrintStream out, Map<String, String> options) {
+        this.out = out;
+        this.options = options;
+    }
+
+    static boolean isCommand(String argument) {
+        return COMMANDS.contains(argument);
+    }
+
+    // Runs the command in args[0] and returns the process exit code
+    public static int run(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        // stdout only carries the JSON result, console logging follows System.out
+        PrintStream out = System.out;
+        System.setOut(System.err);
+
+        String command = args.length > 0 ? args[0] : "";
+        Map<String, String> options;
+        try {
+            if (!isCommand(command)) {
+                throw new IllegalArgumentException("Unknown command: " + command);
+            }
+            options = parseOptions(command, args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE_TEXT);
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("command", command);
+            error.put("error", e.getMessage());
+            error.put("status", "error");
+            error.put("exitCode", USAGE);
+            out.println(toJson(error));
+            out.flush();
+            return USAGE;
+        }
+
+        HeadlessCli cli = new HeadlessCli(out, options);
+        cli.result.put("command", command);
+        long start = System.nanoTime();
+        int exitCode;
+        try {
+            switch (command) {
+                case "train":
+                    exitCode = cli.train();
+                    break;
+                case "evaluate":
+                    exitCode = cli.evaluate();
+                    break;
+                case "score-file":
+                    exitCode = cli.scoreFile();
+                    break;
+                default:
+                    exitCode = cli.benchmark();
+            }
+        } catch (IllegalArgumentException e) {
+            exitCode = USAGE;
+            cli.result.put("error", e.getMessage());
+            System.err.println(USAGE_TEXT);
+        } catch (Exception e) {
+            exitCode = FAILED;
+            cli.result.put("error", String.valueOf(e.getMessage()));
+            e.printStackTrace();
+        }
+        cli.timings.put("totalMs", millisSince(start));
+        cli.result.put("status", exitCode == OK ? "ok" : exitCode == REJECTED ? "rejected" : "error");
+        cli.result.put("exitCode", exitCode);
+        cli.result.put("timings", cli.timings);
+        cli.out.println(toJson(cli.result));
+        cli.out.flush();
+        return exitCode;
+    }
+
+    private int train() throws IOException {
+        Path modelPath = modelPath();
+        TrainingConfig config = new TrainingConfig()
+                .setValidationFraction(doubleOption("validation", 0.1))
+                .setPatience(intOption("patience", 100));
+        if (options.containsKey("epochs")) {
+            config.setEpochs(intOption("epochs", config.getEpochs()));
+        }
+        config.setBatchSize(intOption("batch-size", 0)).setWorkers(intOption("threads", 1));
+        if (config.getWorkers() > 1 && !config.isMiniBatch()) {
+            throw new IllegalArgumentException("--threads above 1 needs --batch-size");
+        }
+
+        long start = System.nanoTime();
+        HousePricePredictionANN app = new HousePricePredictionANN(loadDataset());
+        // The saved model, if any, is the version the new one has to beat
+        if (Files.exists(modelPath)) {
+            app.loadModel(modelPath);
+        }
+        timings.put("loadMs", millisSince(start));
+
+        start = System.nanoTime();
+        app.buildModel();
+        TrainingController.Result training;
+        try (TrainingProfiler profiler = new TrainingProfiler()) {
+            if (options.containsKey("profile")) {
+                profiler.logTo(Paths.get(options.get("profile")));
+            }
+            training = app.trainModel(config, profiler);
+            Map<String, Object> trainingResult = new LinkedHashMap<>();
+            trainingResult.put("epochs", training.getEpochs());
+            trainingResult.put("bestEpoch", training.getBestEpoch());
+            trainingResult.put("bestValidationLoss", training.getBestValidationLoss());
+            trainingResult.put("stopReason", training.getStopReason());
+            trainingResult.put("bottleneck", profiler.getBottleneck().name().toLowerCase(Locale.ROOT));
+            trainingResult.put("samplesPerSec", samplesPerSecond(profiler));
+            result.put("training", trainingResult);
+        }
+        timings.put("trainMs", millisSince(start));
+
+        start = System.nanoTime();
+        Map<String, Double> metrics = app.evaluateModel();
+        timings.put("evaluateMs", millisSince(start));
+        result.put("metrics", testMetrics(metrics));
+
+        ModelRegistry.Promotion promotion = app.promoteModel(metrics);
+        result.put("promoted", promotion.isAccepted());
+        result.put("reason", promotion.getReason());
+        if (!promotion.isAccepted()) {
+            return REJECTED;
+        }
+        result.put("version", promotion.getVersion().getVersion());
+
+        start = System.nanoTime();
+        Path parent = modelPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        app.saveModel(modelPath);
+        timings.put("saveMs", millisSince(start));
+        result.put("model", modelPath.toString());
+        return OK;
+    }
+
+    private int evaluate() throws IOException {
+        Path modelPath = existingModelPath();
+        long start = System.nanoTime();
+        HousePricePredictionANN app = new HousePricePredictionANN(loadDataset());
+        app.loadModel(modelPath);
+        timings.put("loadMs", millisSince(start));
+
+        start = System.nanoTime();
+        Map<String, Double> metrics = app.evaluateModel();
+        timings.put("evaluateMs", millisSince(start));
+        result.put("model", modelPath.toString());
+        result.put("metrics", testMetrics(metrics));
+        return OK;
+    }
+
+    private int scoreFile() throws IOException {
+        Path modelPath = existingModelPath();
+        Path input = Paths.get(requiredOption("input"));
+        Path output = Paths.get(requiredOption("output"));
+        int chunkSize = intOption("chunk-size", BatchScorer.DEFAULT_CHUNK_SIZE);
+
+        // Only the model is needed, not the training dataset
+        long start = System.nanoTime();
+        BatchScorer scorer = new BatchScorer(ModelBundle.load(modelPath));
+        timings.put("loadMs", millisSince(start));
+
+        start = System.nanoTime();
+        long rows = scorer.score(input, output, chunkSize);
+        long elapsed = System.nanoTime() - start;
+        timings.put("scoreMs", elapsed / 1e6);
+        result.put("rows", rows);
+        result.put("rowsPerSec", elapsed == 0 ? 0.0 : rows * 1e9 / elapsed);
+        result.put("output", output.toString());
+        return OK;
+    }
+
+    // Single-row latency on several threads, then batch throughput, both through the registry
+    private int benchmark() throws Exception {
+        Path modelPath = existingModelPath();
+        long seconds = intOption("seconds", 5);
+        int threads = intOption("threads", Runtime.getRuntime().availableProcessors());
+        int batchRows = intOption("batch-rows", 256);
+        InferencePrecision precision = InferencePrecision.valueOf(
+                options.getOrDefault("precision", InferencePrecision.FLOAT32.name()).toUpperCase(Locale.ROOT));
+        if (seconds <= 0 || threads <= 0 || batchRows <= 0) {
+            throw new IllegalArgumentException("--seconds, --threads and --batch-rows must be positive");
+        }
+
+        long start = System.nanoTime();
+        HousingDataset dataset = loadDataset().getAllData();
+        double[][] rows = new double[dataset.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = dataset.getRawFeatures(i);
+        }
+        ModelRegistry registry = new ModelRegistry().setReplicas(threads);
+        registry.setInferencePrecision(precision);
+        ModelBundle bundle = ModelBundle.load(modelPath);
+        registry.publish(bundle, bundle.getMetrics());
+        timings.put("loadMs", millisSince(start));
+
+        LatencyHistogram single = new LatencyHistogram("benchmark.predictPrice");
+        start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures[t] = executor.submit(() -> {
+                    for (int i = offset; System.nanoTime() < deadline; i++) {
+                        long callStart = System.nanoTime();
+                        registry.predictPrice(rows[i % rows.length]);
+                        single.recordSince(callStart);
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        timings.put("predictPriceMs", elapsed / 1e6);
+        Map<String, Object> predictPrice = latency(single.snapshot(), elapsed);
+        predictPrice.put("threads", threads);
+        result.put("predictPrice", predictPrice);
+
+        double[][] batch = new double[batchRows][];
+        for (int i = 0; i < batchRows; i++) {
+            batch[i] = rows[i % rows.length];
+        }
+        LatencyHistogram batches = new LatencyHistogram("benchmark.predictBatch");
+        start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < deadline) {
+            long callStart = System.nanoTime();
+            registry.predictBatch(batch);
+            batches.recordSince(callStart);
+        }
+        elapsed = System.nanoTime() - start;
+        timings.put("predictBatchMs", elapsed / 1e6);
+        LatencyHistogram.Snapshot snapshot = batches.snapshot();
+        Map<String, Object> predictBatch = latency(snapshot, elapsed);
+        predictBatch.put("batchRows", batchRows);
+        predictBatch.put("rowsPerSec", snapshot.getCount() * batchRows * 1e9 / elapsed);
+        result.put("predictBatch", predictBatch);
+
+        result.put("model", modelPath.toString());
+        result.put("precision", precision.name());
+        return OK;
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram.Snapshot snapshot, long elapsedNanos) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("calls", snapshot.getCount());
+        latency.put("callsPerSec", snapshot.getCount() * 1e9 / elapsedNanos);
+        latency.put("meanUs", snapshot.getMeanNanos() / 1e3);
+        latency.put("p50Us", snapshot.getPercentileNanos(0.50) / 1e3);
+        latency.put("p95Us", snapshot.getPercentileNanos(0.95) / 1e3);
+        latency.put("p99Us", snapshot.getPercentileNanos(0.99) / 1e3);
+        latency.put("maxUs", snapshot.getMaxNanos() / 1e3);
+        return latency;
+    }
+
+    // evaluateModel() metrics on the test split; its percent error only covers a few samples
+    private static Map<String, Object> testMetrics(Map<String, Double> metrics) {
+        Map<String, Object> test = new LinkedHashMap<>();
+        test.put("mse", metrics.get("mse"));
+        test.put("rmse", metrics.get("rmse"));
+        test.put("r2", metrics.get("r2"));
+        return test;
+    }
+
+    private static double samplesPerSecond(TrainingProfiler profiler) {
+        long samples = 0;
+        long wall = 0;
+        for (TrainingProfiler.EpochProfile profile : profiler.getEpochs()) {
+            samples += profile.getSamples();
+            wall += profile.getWallNanos();
+        }
+        return wall == 0 ? 0.0 : samples * 1e9 / wall;
+    }
+
+    // Read errors propagate as UncheckedIOException (exit code FAILED)
+    private HousingDataLoader loadDataset() throws IOException {
+        String path = datasetPath();
+        HousingDataLoader dataLoader = new HousingDataLoader();
+        dataLoader.loadData(path);
+        if (dataLoader.getAllData().isEmpty()) {
+            throw new IllegalArgumentException("No rows in dataset " + path);
+        }
+        result.put("datasetRows", dataLoader.getAllData().size());
+        return dataLoader;
+    }
+
+    // --data, else the source tree dataset when run from the repository, else a temporary
+    // copy of the packaged one
+    private String datasetPath() throws IOException {
+        String data = options.get("data");
+        if (data != null) {
+            if (!Files.isRegularFile(Paths.get(data))) {
+                throw new IllegalArgumentException("No dataset at " + data);
+            }
+            return data;
+        }
+        if (Files.isRegularFile(Paths.get(HousePricePredictionANN.DEFAULT_DATASET_PATH))) {
+            return HousePricePredictionANN.DEFAULT_DATASET_PATH;
+        }
+        try (InputStream in = HeadlessCli.class.getResourceAsStream(DATASET_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No packaged dataset, pass --data");
+            }
+            Path copy = Files.createTempFile("Housing", ".csv");
+            copy.toFile().deleteOnExit();
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+            return copy.toString();
+        }
+    }
+
+    private Path modelPath() {
+        return options.containsKey("model") ? Paths.get(options.get("model")) : HousePricePredictionANN.DEFAULT_MODEL_PATH;
+    }
+
+    private Path existingModelPath() {
+        Path modelPath = modelPath();
+        if (!Files.exists(modelPath)) {
+            throw new IllegalArgumentException("No model at " + modelPath + ", run train first or pass --model");
+        }
+        return modelPath;
+    }
+
+    private String requiredOption(String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " expects an integer: " + value);
+        }
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        try {
+            return value != null ? Double.parseDouble(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " expects a number: " + value);
+        }
+    }
+
+    // "--name value" pairs after the command, only the options of that command
+    static Map<String, String> parseOptions(String command, String[] args) {
+        List<String> accepted = OPTIONS.get(command);
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value at: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (!accepted.contains(name)) {
+                throw new IllegalArgumentException("Unknown option for " + command + ": " + args[i]);
+            }
+            if (options.put(name, args[i + 1]) != null) {
+                throw new IllegalArgumentException("Option given twice: " + args[i]);
+            }
+        }
+        return options;
+    }
+
+    private static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e6;
+    }
+
+    static String toJson(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Map) {
+            StringBuilder json = new StringBuilder("{");
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append(toJson(String.valueOf(entry.getKey()))).append(':').append(toJson(entry.getValue()));
+            }
+            return json.append('}').toString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                return "null";
+            }
+            return Double.toString(number);
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : value.toString().toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+}
@@ -1,19 +1,9 @@
 package org.example;
 
-import org.deeplearning4j.nn.api.OptimizationAlgorithm;
-import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
-import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
-import org.deeplearning4j.nn.conf.layers.DenseLayer;
-import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
-import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
-import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.learning.config.Adam;
-import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -22,6 +12,11 @@ import javax.swing.table.TableColumn;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.util.HashMap;
 import java.util.List;
@@ -38,9 +33,32 @@ public class HousePricePredictionANN {
     private JTabbedPane tabbedPane;
     private JPanel correlationPanel;
     private JPanel modelDescriptionPanel;
+    // Up to 1000 epochs, stopping once the validation loss stalls for 100 epochs
+    private TrainingConfig trainingConfig = new TrainingConfig()
+            .setValidationFraction(0.1)
+            .setPatience(100);
+    private TrainingController.Result lastTrainingResult;
+    private ModelConfig modelConfig = new ModelConfig();
+    // Scaling parameters the current model was trained with (frozen copy)
+    private FeatureScaler modelScaler;
+    // Versions serving predictions; the network above is only the candidate being trained,
+    // it replaces the served version once its evaluation passes the registry thresholds
+    private final ModelRegistry registry = new ModelRegistry();
+    // Optional cache in front of predictPrice, null when disabled
+    private volatile PredictionCache predictionCache;
+
+    // Share of the rows used for training, the rest is the test set
+    private static final double TRAINING_RATIO = 0.8;
+
+    private static final LatencyHistogram EVALUATE_LATENCY = Metrics.histogram(Metrics.EVALUATE_MODEL);
+
+    // Trained model saved after each training run and reloaded at startup
+    static final Path DEFAULT_MODEL_PATH = Paths.get("model", "house-price-model.zip");
+    // Per-epoch profile of the last training run started from the GUI
+    private static final Path DEFAULT_PROFILE_PATH = Paths.get("model", "training-profile.csv");
 
     // Fixed path to the housing dataset (to be packaged with the application)
-    private static final String DEFAULT_DATASET_PATH = "src/main/resources/Housing.csv";
+    static final String DEFAULT_DATASET_PATH = "src/main/resources/Housing.csv";
 
     // Conversion rate from INR to USD (as of May 2025)
     private static final double INR_TO_USD_RATE = 0.012;
@@ -53,76 +71,155 @@ public class HousePricePredictionANN {
     };
 
     public HousePricePredictionANN() {
-        dataLoader = new HousingDataLoader();
         // Load data immediately using the default path
-        dataLoader.loadData(DEFAULT_DATASET_PATH);
+        this(DEFAULT_DATASET_PATH);
+    }
+
+    public HousePricePredictionANN(String datasetPath) {
+        this(datasetPath, DEFAULT_MODEL_PATH);
+    }
+
+    // Starts from the model saved at modelPath when there is one (null to start without model).
+    // The GUI also starts when the dataset cannot be read, the error is printed.
+    public HousePricePredictionANN(String datasetPath, Path modelPath) {
+        this(new HousingDataLoader());
+        try {
+            dataLoader.loadData(datasetPath);
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getMessage());
+        }
+
+        if (modelPath != null && Files.exists(modelPath)) {
+            try {
+                loadModel(modelPath);
+            } catch (IOException e) {
+                System.err.println("Error loading saved model: " + e.getMessage());
+            }
+        }
+    }
+
+    // On data loaded by the caller, without model
+    public HousePricePredictionANN(HousingDataLoader dataLoader) {
+        this.dataLoader = dataLoader;
+    }
+
+    public void loadModel(Path path) throws IOException {
+        long start = System.currentTimeMillis();
+        ModelBundle bundle = ModelBundle.load(path);
+        model = bundle.getNetwork();
+        model.setListeners(new ScoreIterationListener(100));
+        modelConfig = bundle.getModelConfig();
+        modelScaler = bundle.getScaler();
+        registry.publish(bundle, bundle.getMetrics());
+
+        System.out.println("Model loaded from " + path + " in " + (System.currentTimeMillis() - start) + " ms.");
+        if (!bundle.matches(dataLoader.getAllData())) {
+            System.out.println("Warning: the saved model was trained on different data (" +
+                    bundle.getDatasetRows() + " rows), predictions use its own scaling.");
+        }
+    }
+
+    // Saves the version currently serving predictions
+    public void saveModel(Path path) throws IOException {
+        ModelVersion version = registry.current();
+        if (version == null) {
+            throw new IllegalStateException("No trained model");
+        }
+        version.getBundle().save(path);
+        System.out.println("Model " + version + " saved to " + path);
+    }
+
+    // The candidate model with its scaling and the fingerprint of the loaded data
+    public ModelBundle toBundle() {
+        if (model == null || modelScaler == null) {
+            throw new IllegalStateException("No trained model");
+        }
+        HousingDataset dataset = dataLoader.getAllData();
+        return new ModelBundle(model, modelConfig, modelScaler, dataset.fingerprint(), dataset.size());
     }
 
     public void buildModel() {
+        buildModel(modelConfig);
+    }
+
+    // Always a new network, the served version is never trained further
+    public void buildModel(ModelConfig config) {
         // Get input dimension from the data loader
         int numInputs = dataLoader.getInputDimension();
-        int numOutputs = 1; // Price prediction
-        int numHiddenNodes = 20;
-
-        // Neural network configuration
-        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
-                .seed(123)
-                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
-                .updater(new Adam(0.001))
-                .weightInit(WeightInit.XAVIER)
-                .l2(1e-4)
-                .list()
-                .layer(0, new DenseLayer.Builder()
-                        .nIn(numInputs)
-                        .nOut(numHiddenNodes)
-                        .activation(Activation.RELU)
-                        .build())
-                .layer(1, new DenseLayer.Builder()
-                        .nIn(numHiddenNodes)
-                        .nOut(numHiddenNodes)
-                        .activation(Activation.RELU)
-                        .build())
-                .layer(2, new OutputLayer.Builder(LossFunctions.LossFunction.MSE)
-                        .nIn(numHiddenNodes)
-                        .nOut(numOutputs)
-                        .activation(Activation.IDENTITY)
-                        .build())
-                .build();
-
-        model = new MultiLayerNetwork(conf);
-        model.init();
+
+        model = config.createNetwork(numInputs);
         model.setListeners(new ScoreIterationListener(100));
+        modelConfig = config;
     }
 
-    public void trainModel() {
-        // Split data
-        Map<String, List<HousingDataLoader.HousingData>> splitData = dataLoader.splitData(0.8);
-        List<HousingDataLoader.HousingData> trainingData = splitData.get("training");
+    public ModelConfig getModelConfig() {
+        return modelConfig;
+    }
 
-        // Convert to ND4J format
-        double[][] trainingFeatures = dataLoader.getFeatureMatrix(trainingData);
-        double[][] trainingTargets = dataLoader.getTargetMatrix(trainingData);
+    public TrainingController.Result trainModel() {
+        return trainModel(trainingConfig);
+    }
 
-        INDArray featuresNDArray = Nd4j.create(trainingFeatures);
-        INDArray targetsNDArray = Nd4j.create(trainingTargets);
+    public TrainingController.Result trainModel(TrainingConfig config) {
+        return trainModel(config, null);
+    }
 
-        DataSet trainingSet = new DataSet(featuresNDArray, targetsNDArray);
+    // profiler may be null
+    public TrainingController.Result trainModel(TrainingConfig config, TrainingProfiler profiler) {
+        // Validation rows are the tail of the (already shuffled) training split
+        DataSplit split = dataLoader.getSplit(TRAINING_RATIO);
+        HousingDataView trainingData = split.getTraining(config.getValidationFraction());
+        HousingDataView validationData = split.getValidation(config.getValidationFraction());
 
         // Train the model
-        for (int i = 0; i < 1000; i++) {
-            model.fit(trainingSet);
-            if (i % 100 == 0) {
-                System.out.println("Epoch " + i + ", Score: " + model.score());
-            }
+        TrainingController controller = new TrainingController(model, dataLoader, config).setProfiler(profiler);
+        lastTrainingResult = controller.train(trainingData, validationData);
+        modelScaler = dataLoader.getScaler().snapshot();
+        return lastTrainingResult;
+    }
+
+    // Serve the trained candidate if its test metrics (evaluateModel) pass the registry thresholds
+    // and it does no worse than the serving version on the raw test rows
+    public ModelRegistry.Promotion promoteModel(Map<String, Double> metrics) {
+        HousingDataView testingData = dataLoader.getSplit(TRAINING_RATIO).getTesting();
+        double[][] testFeatures = new double[testingData.size()][];
+        double[] testPrices = new double[testingData.size()];
+        for (int i = 0; i < testFeatures.length; i++) {
+            testFeatures[i] = testingData.getRawFeatures(i);
+            testPrices[i] = testingData.getPrice(i);
         }
+        return registry.promote(toBundle(), metrics, testFeatures, testPrices);
     }
 
-    public Map<String, Double> evaluateModel() {
-        Map<String, List<HousingDataLoader.HousingData>> splitData = dataLoader.splitData(0.8);
-        List<HousingDataLoader.HousingData> testingData = splitData.get("testing");
+    public ModelRegistry getRegistry() {
+        return registry;
+    }
+
+    public TrainingController.Result getLastTrainingResult() {
+        return lastTrainingResult;
+    }
 
-        double[][] testingFeatures = dataLoader.getFeatureMatrix(testingData);
-        double[][] testingTargets = dataLoader.getTargetMatrix(testingData);
+    public TrainingConfig getTrainingConfig() {
+        return trainingConfig;
+    }
+
+    public void setTrainingConfig(TrainingConfig trainingConfig) {
+        this.trainingConfig = trainingConfig;
+    }
+
+    public Map<String, Double> evaluateModel() {
+        long start = System.nanoTime();
+        HousingDataView testingData = dataLoader.getSplit(TRAINING_RATIO).getTesting();
+
+        // Normalize the raw test rows with the scaling the model was trained with, a loaded
+        // bundle may have been fitted on other data than the loader's live scaler
+        FeatureScaler scaler = modelScaler != null ? modelScaler : dataLoader.getScaler();
+        double[][] testingFeatures = new double[testingData.size()][HousingDataset.NUM_FEATURES];
+        double[][] testingTargets = new double[testingData.size()][1];
+        for (int i = 0; i < testingData.size(); i++) {
+            scaler.transformFeatures(testingData.getRawFeatures(i), testingFeatures[i]);
+            testingTargets[i][0] = scaler.normalizePrice(testingData.getPrice(i));
+        }
 
         INDArray featuresNDArray = Nd4j.create(testingFeatures);
         INDArray targetsNDArray = Nd4j.create(testingTargets);
@@ -155,9 +252,9 @@ public class HousePricePredictionANN {
         int samplesToShow = Math.min(5, testingData.size());
         for (int i = 0; i < samplesToShow; i++) {
             double normalizedPrediction = predictions.getDouble(i, 0);
-            double originalPrediction = dataLoader.denormalizePrice(normalizedPrediction);
+            double originalPrediction = scaler.denormalizePrice(normalizedPrediction);
             double originalPredictionUSD = originalPrediction * INR_TO_USD_RATE;
-            double originalTarget = testingData.get(i).getPrice();
+            double originalTarget = testingData.getPrice(i);
             double originalTargetUSD = originalTarget * INR_TO_USD_RATE;
             double error = Math.abs((originalPrediction - originalTarget) / originalTarget) * 100;
             totalError += error;
@@ -184,189 +281,208 @@ public class HousePricePredictionANN {
         // Update the correlation matrix panel
         updateCorrelationMatrix();
 
+        EVALUATE_LATENCY.recordSince(start);
         return metrics;
     }
 
     private void updateCorrelationMatrix() {
-        SwingUtilities.invokeLater(() -> {
-            // Get correlation matrix from data loader
-            double[][] correlationMatrix = dataLoader.calculateCorrelationMatrix();
-
-            // Create a table model for the correlation matrix
-            DefaultTableModel model = new DefaultTableModel();
-
-            // Add column names
-            for (String feature : FEATURE_NAMES) {
-                model.addColumn(feature);
+        // Nothing to update when running without the GUI
+        if (correlationPanel == null) {
+            return;
+        }
+        // Compute the matrix off the event dispatch thread, only the table is built on it
+        new SwingWorker<double[][], Void>() {
+            @Override
+            protected double[][] doInBackground() {
+                return dataLoader.calculateCorrelationMatrix();
             }
 
-            // Add rows with data
-            DecimalFormat df = new DecimalFormat("0.00");
-            for (int i = 0; i < correlationMatrix.length; i++) {
-                Object[] row = new Object[correlationMatrix[i].length];
-                for (int j = 0; j < correlationMatrix[i].length; j++) {
-                    row[j] = df.format(correlationMatrix[i][j]);
+            @Override
+            protected void done() {
+                try {
+                    showCorrelationMatrix(get());
+                } catch (Exception e) {
+                    System.err.println("Error computing correlation matrix: " + e.getMessage());
                 }
-                model.addRow(row);
             }
+        }.execute();
+    }
 
-            // Create table with the model
-            JTable table = new JTable(model);
-            table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+    private void showCorrelationMatrix(double[][] correlationMatrix) {
+        // Create a table model for the correlation matrix
+        DefaultTableModel model = new DefaultTableModel();
 
-            // Calculate preferred width for each column based on content
-            for (int column = 0; column < table.getColumnCount(); column++) {
-                TableColumn tableColumn = table.getColumnModel().getColumn(column);
-                int preferredWidth = Math.max(100, tableColumn.getPreferredWidth() + 10);
-                tableColumn.setPreferredWidth(preferredWidth);
-            }
+        // Add column names
+        for (String feature : FEATURE_NAMES) {
+            model.addColumn(feature);
+        }
 
-            // Create row header table with proper sizing
-            DefaultTableModel rowHeaderModel = new DefaultTableModel(0, 1);
-            // Add feature names as rows
-            for (String featureName : FEATURE_NAMES) {
-                rowHeaderModel.addRow(new Object[]{featureName});
+        // Add rows with data
+        DecimalFormat df = new DecimalFormat("0.00");
+        for (int i = 0; i < correlationMatrix.length; i++) {
+            Object[] row = new Object[correlationMatrix[i].length];
+            for (int j = 0; j < correlationMatrix[i].length; j++) {
+                row[j] = df.format(correlationMatrix[i][j]);
             }
+            model.addRow(row);
+        }
 
-            JTable rowHeader = new JTable(rowHeaderModel);
-            rowHeader.setEnabled(false);
+        // Create table with the model
+        JTable table = new JTable(model);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
 
-            // Set preferred width for row header based on content
-            int maxRowHeaderWidth = 0;
-            for (String feature : FEATURE_NAMES) {
-                maxRowHeaderWidth = Math.max(maxRowHeaderWidth,
-                        rowHeader.getFontMetrics(rowHeader.getFont())
-                                .stringWidth(feature) + 20);
-            }
-            rowHeader.getColumnModel().getColumn(0).setPreferredWidth(maxRowHeaderWidth);
-            rowHeader.setPreferredScrollableViewportSize(
-                    new Dimension(maxRowHeaderWidth, rowHeader.getPreferredSize().height));
-
-            // Apply a cell renderer to color cells based on correlation strength and ensure proper alignment
-            table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-                @Override
-                public Component getTableCellRendererComponent(JTable table, Object value,
-                                                               boolean isSelected, boolean hasFocus, int row, int column) {
-                    Component c = super.getTableCellRendererComponent(
-                            table, value, isSelected, hasFocus, row, column);
-
-                    try {
-                        double val = Double.parseDouble(value.toString());
-                        // Color based on correlation strength
-                        if (val > 0.7 || val < -0.7) {
-                            c.setBackground(new Color(255, 200, 200)); // Strong correlation
-                        } else if (val > 0.4 || val < -0.4) {
-                            c.setBackground(new Color(255, 230, 230)); // Moderate correlation
-                        } else {
-                            c.setBackground(Color.WHITE); // Weak correlation
-                        }
-                    } catch (NumberFormatException e) {
-                        c.setBackground(Color.WHITE);
-                    }
+        // Calculate preferred width for each column based on content
+        for (int column = 0; column < table.getColumnCount(); column++) {
+            TableColumn tableColumn = table.getColumnModel().getColumn(column);
+            int preferredWidth = Math.max(100, tableColumn.getPreferredWidth() + 10);
+            tableColumn.setPreferredWidth(preferredWidth);
+        }
 
-                    setHorizontalAlignment(SwingConstants.CENTER);
-                    setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
-                    return c;
-                }
-            });
-
-            // Apply similar styling to row header
-            rowHeader.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
-                @Override
-                public Component getTableCellRendererComponent(JTable table, Object value,
-                                                               boolean isSelected, boolean hasFocus, int row, int column) {
-                    Component c = super.getTableCellRendererComponent(
-                            table, value, isSelected, hasFocus, row, column);
-                    setBackground(new Color(240, 240, 240));
-                    setHorizontalAlignment(SwingConstants.LEFT);
-                    setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
-                    setFont(getFont().deriveFont(Font.BOLD));
-                    return c;
-                }
-            });
+        // Create row header table with proper sizing
+        DefaultTableModel rowHeaderModel = new DefaultTableModel(0, 1);
+        // Add feature names as rows
+        for (String featureName : FEATURE_NAMES) {
+            rowHeaderModel.addRow(new Object[]{featureName});
+        }
 
-            // Ensure both tables have the same row height
-            rowHeader.setRowHeight(table.getRowHeight());
+        JTable rowHeader = new JTable(rowHeaderModel);
+        rowHeader.setEnabled(false);
 
-            // Clear old content and add the new table
-            correlationPanel.removeAll();
-            correlationPanel.setLayout(new BorderLayout());
+        // Set preferred width for row header based on content
+        int maxRowHeaderWidth = 0;
+        for (String feature : FEATURE_NAMES) {
+            maxRowHeaderWidth = Math.max(maxRowHeaderWidth,
+                    rowHeader.getFontMetrics(rowHeader.getFont())
+                            .stringWidth(feature) + 20);
+        }
+        rowHeader.getColumnModel().getColumn(0).setPreferredWidth(maxRowHeaderWidth);
+        rowHeader.setPreferredScrollableViewportSize(
+                new Dimension(maxRowHeaderWidth, rowHeader.getPreferredSize().height));
 
-            // Create header panel with logo and title
-            JPanel headerPanel = new JPanel(new BorderLayout());
+        // Apply a cell renderer to color cells based on correlation strength and ensure proper alignment
+        table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                                                           boolean isSelected, boolean hasFocus, int row, int column) {
+                Component c = super.getTableCellRendererComponent(
+                        table, value, isSelected, hasFocus, row, column);
 
-            // Load and add school logo
-            JLabel logoLabel = new JLabel();
-            try {
-                // Load the ENSAM logo
-                ImageIcon logoIcon = new ImageIcon(getClass().getResource("/LOGO_ENSAM.png"));
-
-                // Calculate the scaling ratio to fit the height while maintaining aspect ratio
-                Image img = logoIcon.getImage();
-                double scaleFactor = 100.0 / img.getHeight(null); // Target height of 100px
-                int scaledWidth = (int)(img.getWidth(null) * scaleFactor);
-
-                // Scale the image proportionally
-                Image scaledImg = img.getScaledInstance(scaledWidth, 100, Image.SCALE_SMOOTH);
-                logoIcon = new ImageIcon(scaledImg);
-
-                logoLabel.setIcon(logoIcon);
-                logoLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                logoLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-                logoLabel.setPreferredSize(new Dimension(scaledWidth, 100));
-            } catch (Exception e) {
-                // Fallback if image loading fails
-                logoLabel.setText("Logo ENSAM");
-                logoLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                logoLabel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
-                logoLabel.setPreferredSize(new Dimension(240, 100));
-                System.err.println("Failed to load logo image: " + e.getMessage());
+                try {
+                    double val = Double.parseDouble(value.toString());
+                    // Color based on correlation strength
+                    if (val > 0.7 || val < -0.7) {
+                        c.setBackground(new Color(255, 200, 200)); // Strong correlation
+                    } else if (val > 0.4 || val < -0.4) {
+                        c.setBackground(new Color(255, 230, 230)); // Moderate correlation
+                    } else {
+                        c.setBackground(Color.WHITE); // Weak correlation
+                    }
+                } catch (NumberFormatException e) {
+                    c.setBackground(Color.WHITE);
+                }
+
+                setHorizontalAlignment(SwingConstants.CENTER);
+                setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+                return c;
             }
+        });
 
-            // Add title with improved styling
-            JLabel titleLabel = new JLabel("Matrice de Corrélation", SwingConstants.CENTER);
-            titleLabel.setFont(new Font("Sans-Serif", Font.BOLD, 18));
-            titleLabel.setBorder(BorderFactory.createEmptyBorder(0, 20, 0, 0));
-
-            // Add logo and title to header
-            JPanel logoPanel = new JPanel(new BorderLayout());
-            logoPanel.add(logoLabel, BorderLayout.CENTER);
-            logoPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 20));
-
-            headerPanel.add(logoPanel, BorderLayout.WEST);
-            headerPanel.add(titleLabel, BorderLayout.CENTER);
-
-            // Add padding around the header
-            headerPanel.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createMatteBorder(0, 0, 1, 0, Color.LIGHT_GRAY),
-                    BorderFactory.createEmptyBorder(10, 10, 10, 10)
-            ));
-
-            // Create a scroll pane with the table
-            JScrollPane scrollPane = new JScrollPane(table);
-            scrollPane.setRowHeaderView(rowHeader);
-
-            // Make sure horizontal scrollbar always shows
-            scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_ALWAYS);
-
-            // Set preferred size for the scroll pane
-            scrollPane.setPreferredSize(new Dimension(650, 400));
-
-            // Change the layout structure
-            correlationPanel.add(headerPanel, BorderLayout.NORTH);
-            correlationPanel.add(scrollPane, BorderLayout.CENTER);
-
-            // Add legend in a more structured way
-            JPanel legendPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-            legendPanel.setBorder(BorderFactory.createTitledBorder("Légende"));
-            addLegendItem(legendPanel, "Forte corrélation (>0.7)", new Color(255, 200, 200));
-            addLegendItem(legendPanel, "Corrélation modérée (>0.4)", new Color(255, 230, 230));
-            addLegendItem(legendPanel, "Faible corrélation (<0.4)", Color.WHITE);
-            correlationPanel.add(legendPanel, BorderLayout.SOUTH);
-
-            correlationPanel.revalidate();
-            correlationPanel.repaint();
+        // Apply similar styling to row header
+        rowHeader.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                                                           boolean isSelected, boolean hasFocus, int row, int column) {
+                Component c = super.getTableCellRendererComponent(
+                        table, value, isSelected, hasFocus, row, column);
+                setBackground(new Color(240, 240, 240));
+                setHorizontalAlignment(SwingConstants.LEFT);
+                setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+                setFont(getFont().deriveFont(Font.BOLD));
+                return c;
+            }
         });
+
+        // Ensure both tables have the same row height
+        rowHeader.setRowHeight(table.getRowHeight());
+
+        // Clear old content and add the new table
+        correlationPanel.removeAll();
+        correlationPanel.setLayout(new BorderLayout());
+
+        // Create header panel with logo and title
+        JPanel headerPanel = new JPanel(new BorderLayout());
+
+        // Load and add school logo
+        JLabel logoLabel = new JLabel();
+        try {
+            // Load the ENSAM logo
+            ImageIcon logoIcon = new ImageIcon(getClass().getResource("/LOGO_ENSAM.png"));
+
+            // Calculate the scaling ratio to fit the height while maintaining aspect ratio
+            Image img = logoIcon.getImage();
+            double scaleFactor = 100.0 / img.getHeight(null); // Target height of 100px
+            int scaledWidth = (int)(img.getWidth(null) * scaleFactor);
+
+            // Scale the image proportionally
+            Image scaledImg = img.getScaledInstance(scaledWidth, 100, Image.SCALE_SMOOTH);
+            logoIcon = new ImageIcon(scaledImg);
+
+            logoLabel.setIcon(logoIcon);
+            logoLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            logoLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+            logoLabel.setPreferredSize(new Dimension(scaledWidth, 100));
+        } catch (Exception e) {
+            // Fallback if image loading fails
+            logoLabel.setText("Logo ENSAM");
+            logoLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            logoLabel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+            logoLabel.setPreferredSize(new Dimension(240, 100));
+            System.err.println("Failed to load logo image: " + e.getMessage());
+        }
+
+        // Add title with improved styling
+        JLabel titleLabel = new JLabel("Matrice de Corrélation", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Sans-Serif", Font.BOLD, 18));
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(0, 20, 0, 0));
+
+        // Add logo and title to header
+        JPanel logoPanel = new JPanel(new BorderLayout());
+        logoPanel.add(logoLabel, BorderLayout.CENTER);
+        logoPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 20));
+
+        headerPanel.add(logoPanel, BorderLayout.WEST);
+        headerPanel.add(titleLabel, BorderLayout.CENTER);
+
+        // Add padding around the header
+        headerPanel.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createMatteBorder(0, 0, 1, 0, Color.LIGHT_GRAY),
+                BorderFactory.createEmptyBorder(10, 10, 10, 10)
+        ));
+
+        // Create a scroll pane with the table
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setRowHeaderView(rowHeader);
+
+        // Make sure horizontal scrollbar always shows
+        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_ALWAYS);
+
+        // Set preferred size for the scroll pane
+        scrollPane.setPreferredSize(new Dimension(650, 400));
+
+        // Change the layout structure
+        correlationPanel.add(headerPanel, BorderLayout.NORTH);
+        correlationPanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Add legend in a more structured way
+        JPanel legendPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        legendPanel.setBorder(BorderFactory.createTitledBorder("Légende"));
+        addLegendItem(legendPanel, "Forte corrélation (>0.7)", new Color(255, 200, 200));
+        addLegendItem(legendPanel, "Corrélation modérée (>0.4)", new Color(255, 230, 230));
+        addLegendItem(legendPanel, "Faible corrélation (<0.4)", Color.WHITE);
+        correlationPanel.add(legendPanel, BorderLayout.SOUTH);
+
+        correlationPanel.revalidate();
+        correlationPanel.repaint();
     }
 
     private void addLegendItem(JPanel panel, String text, Color color) {
@@ -379,33 +495,38 @@ public class HousePricePredictionANN {
         panel.add(Box.createHorizontalStrut(15));
     }
 
+    // Safe to call from any number of threads, also while a new model is being trained
     public double predictPrice(double[] features) {
-        // Make sure features are normalized the same way as training data
-        int numFeatures = dataLoader.getInputDimension();
-        double[] normalizedFeatures = new double[numFeatures];
-
-        // Get min/max values
-        double[] minFeatures = dataLoader.getMinFeatures();
-        double[] maxFeatures = dataLoader.getMaxFeatures();
-
-        for (int i = 0; i < numFeatures; i++) {
-            // Avoid division by zero
-            if (maxFeatures[i] - minFeatures[i] == 0) {
-                normalizedFeatures[i] = 0.0;
-            } else {
-                normalizedFeatures[i] = (features[i] - minFeatures[i]) / (maxFeatures[i] - minFeatures[i]);
-            }
-        }
+        PredictionCache cache = predictionCache;
+        return cache != null ? cache.predictPrice(features) : registry.predictPrice(features);
+    }
+
+    // areaBucket > 1 predicts for the area rounded to that multiple
+    public PredictionCache enablePredictionCache(int capacity, double areaBucket) {
+        PredictionCache cache = new PredictionCache(registry, capacity, areaBucket);
+        predictionCache = cache;
+        return cache;
+    }
 
-        // Create ND4j array with batch size 1
-        INDArray input = Nd4j.create(new double[][]{normalizedFeatures});
+    public void disablePredictionCache() {
+        predictionCache = null;
+    }
 
-        // Get model prediction (normalized)
-        INDArray output = model.output(input);
-        double normalizedPrediction = output.getDouble(0, 0);
+    public PredictionCache getPredictionCache() {
+        return predictionCache;
+    }
 
-        // Convert back to original price scale
-        return dataLoader.denormalizePrice(normalizedPrediction);
+    public InferencePrecision getInferencePrecision() {
+        return registry.getInferencePrecision();
+    }
+
+    public void setInferencePrecision(InferencePrecision inferencePrecision) {
+        registry.setInferencePrecision(inferencePrecision);
+    }
+
+    // Prices for many listings at once, with a single forward pass
+    public double[] predictBatch(double[][] features) {
+        return registry.predictBatch(features);
     }
 
     public void createAndShowGUI() {
@@ -427,6 +548,10 @@ public class HousePricePredictionANN {
         tabbedPane.addTab("Description du Modèle", modelDescriptionPanel);
         tabbedPane.addTab("Corrélations", correlationPanel);
 
+        if (model != null) {
+            resultArea.setText("Modèle enregistré chargé, prêt pour les prédictions.\n");
+        }
+
         // Add tabbed pane to frame
         frame.add(tabbedPane);
 
@@ -491,8 +616,12 @@ public class HousePricePredictionANN {
         JPanel buttonPanel = new JPanel();
         JButton predictButton = new JButton("Prédire le Prix");
         JButton trainButton = new JButton("Entraîner le Modèle");
+        JButton appendButton = new JButton("Ajouter des Annonces");
+        JButton rollbackButton = new JButton("Version Précédente");
         buttonPanel.add(trainButton);
         buttonPanel.add(predictButton);
+        buttonPanel.add(appendButton);
+        buttonPanel.add(rollbackButton);
 
         // Create results area
         resultArea = new JTextArea(10, 40);
@@ -536,7 +665,7 @@ public class HousePricePredictionANN {
                             break;
                     }
 
-                    // Prepare features array in the same order as in HousingData.getRawFeatures()
+                    // Prepare features array in the same order as in HousingDataset.getRawFeatures()
                     double[] features = new double[12];
                     features[0] = area;
                     features[1] = bedrooms;
@@ -602,7 +731,19 @@ public class HousePricePredictionANN {
                             buildModel();
 
                             publish("Entraînement du modèle...");
-                            trainModel();
+                            TrainingController.Result result;
+                            try (TrainingProfiler profiler = new TrainingProfiler().logTo(DEFAULT_PROFILE_PATH)) {
+                                profiler.addConsumer(profile -> {
+                                    if (profile.getEpoch() % 100 == 0) {
+                                        publish(describeEpoch(profile));
+                                    }
+                                });
+                                result = trainModel(trainingConfig, profiler);
+                                publish(describeProfile(profiler));
+                            }
+                            publish("Profil par époque enregistré dans " + DEFAULT_PROFILE_PATH);
+                            publish("Arrêt après " + result.getEpochs() + " époques (" + result.getStopReason() + ") en " +
+                                    result.getElapsedMillis() + " ms");
 
                             publish("Évaluation du modèle...");
                             Map<String, Double> metrics = evaluateModel();
@@ -614,16 +755,26 @@ public class HousePricePredictionANN {
                             publish("R² Score: " + String.format("%.5f", metrics.get("r2")));
                             publish("Erreur moyenne: " + String.format("%.2f%%", metrics.get("averagePercentError")));
 
+                            // The model in service is only replaced when the new one is good enough
+                            ModelRegistry.Promotion promotion = promoteModel(metrics);
+                            if (!promotion.isAccepted()) {
+                                ModelVersion serving = registry.current();
+                                publish("\nModèle rejeté: " + promotion.getReason());
+                                publish(serving != null ? "La version " + serving.getVersion() + " reste en service."
+                                        : "Aucun modèle en service.");
+                                return null;
+                            }
+                            publish("Modèle publié en version " + promotion.getVersion().getVersion());
+
                             // Display sample predictions with USD conversion
-                            Map<String, List<HousingDataLoader.HousingData>> splitData = dataLoader.splitData(0.8);
-                            List<HousingDataLoader.HousingData> testingData = splitData.get("testing");
+                            HousingDataView testingData = dataLoader.getSplit(TRAINING_RATIO).getTesting();
                             DecimalFormat df = new DecimalFormat("#,###.##");
 
                             int samplesToShow = Math.min(3, testingData.size());
                             publish("\nExemples de prédictions:");
                             for (int i = 0; i < samplesToShow; i++) {
-                                double[] features = testingData.get(i).getRawFeatures();
-                                double actualPrice = testingData.get(i).getPrice();
+                                double[] features = testingData.getRawFeatures(i);
+                                double actualPrice = testingData.getPrice(i);
                                 double actualPriceUSD = actualPrice * INR_TO_USD_RATE;
                                 double predictedPrice = predictPrice(features);
                                 double predictedPriceUSD = predictedPrice * INR_TO_USD_RATE;
@@ -633,7 +784,9 @@ public class HousePricePredictionANN {
                                 publish("  Prédit: " + df.format(predictedPrice) + " INR ($" + df.format(predictedPriceUSD) + ")");
                             }
 
-                            publish("\nLe modèle est prêt pour les prédictions.");
+                            saveModel(DEFAULT_MODEL_PATH);
+                            publish("\nModèle enregistré dans " + DEFAULT_MODEL_PATH);
+                            publish("Le modèle est prêt pour les prédictions.");
 
                             // Update the model description panel
                             updateModelDescription(metrics);
@@ -656,6 +809,60 @@ public class HousePricePredictionANN {
             }
         });
 
+        // Append button action: ingest a new batch of listings and refresh the correlations
+        appendButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                JFileChooser chooser = new JFileChooser();
+                if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                    return;
+                }
+                String path = chooser.getSelectedFile().getPath();
+
+                SwingWorker<Void, String> worker = new SwingWorker<Void, String>() {
+                    @Override
+                    protected Void doInBackground() {
+                        publish("Ajout des annonces de " + path + "...");
+                        try {
+                            dataLoader.appendData(path);
+                        } catch (UncheckedIOException ex) {
+                            publish("Erreur: " + ex.getMessage());
+                        }
+                        publish("Jeu de données: " + dataLoader.getAllData().size() + " annonces.");
+                        return null;
+                    }
+
+                    @Override
+                    protected void process(List<String> chunks) {
+                        for (String message : chunks) {
+                            resultArea.append(message + "\n");
+                        }
+                    }
+
+                    @Override
+                    protected void done() {
+                        // Statistics were updated incrementally, no rescan of the history
+                        updateCorrelationMatrix();
+                    }
+                };
+                worker.execute();
+            }
+        });
+
+        // Rollback button action: serve the previous model version again
+        rollbackButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                try {
+                    ModelVersion version = registry.rollback();
+                    saveModel(DEFAULT_MODEL_PATH);
+                    resultArea.setText("Retour à la version " + version.getVersion() + " du modèle.\n");
+                } catch (IllegalStateException | IOException ex) {
+                    resultArea.setText("Erreur: " + ex.getMessage());
+                }
+            }
+        });
+
         return panel;
     }
 
@@ -728,7 +935,7 @@ public class HousePricePredictionANN {
                 int height = getHeight();
 
                 // Define the layers
-                int[] layers = {12, 20, 20, 1};
+                int[] layers = modelConfig.layerSizes(HousingDataset.NUM_FEATURES);
                 int maxNeurons = 20;
 
                 // Calculate spacing
@@ -804,9 +1011,10 @@ public class HousePricePredictionANN {
                 g2d.setColor(Color.BLACK);
                 g2d.setFont(new Font("Sans-Serif", Font.BOLD, 12));
                 g2d.drawString("Entrée", layerSpacing - 20, height - 5);
-                g2d.drawString("Cachée 1", 2 * layerSpacing - 30, height - 5);
-                g2d.drawString("Cachée 2", 3 * layerSpacing - 30, height - 5);
-                g2d.drawString("Sortie", 4 * layerSpacing - 20, height - 5);
+                for (int layer = 1; layer < layers.length - 1; layer++) {
+                    g2d.drawString("Cachée " + layer, (layer + 1) * layerSpacing - 30, height - 5);
+                }
+                g2d.drawString("Sortie", layers.length * layerSpacing - 20, height - 5);
             }
         };
 
@@ -816,6 +1024,30 @@ public class HousePricePredictionANN {
         return panel;
     }
 
+    private static String describeEpoch(TrainingProfiler.EpochProfile profile) {
+        return String.format("Époque %d: %.1f ms (données %.1f, avant %.1f, arrière %.1f, mise à jour %.1f), " +
+                        "%.0f exemples/s, %.1f Mo alloués, %.1f Mo natifs, GC %d ms",
+                profile.getEpoch(), profile.getWallNanos() / 1e6, profile.getDataNanos() / 1e6,
+                profile.getForwardNanos() / 1e6, profile.getBackwardNanos() / 1e6, profile.getUpdateNanos() / 1e6,
+                profile.getSamplesPerSecond(), profile.getAllocatedBytes() / 1e6, profile.getNativeBytes() / 1e6,
+                profile.getGcMillis());
+    }
+
+    private static String describeProfile(TrainingProfiler profiler) {
+        String bottleneck;
+        switch (profiler.getBottleneck()) {
+            case DATA:
+                bottleneck = "les données";
+                break;
+            case MEMORY:
+                bottleneck = "la mémoire (GC)";
+                break;
+            default:
+                bottleneck = "le calcul";
+        }
+        return "Entraînement limité par " + bottleneck + ".";
+    }
+
     private void updateModelDescription(Map<String, Double> metrics) {
         SwingUtilities.invokeLater(() -> {
             // Find the text area in the description panel
@@ -849,7 +1081,16 @@ public class HousePricePredictionANN {
         });
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args);
+            return;
+        }
+        if (args.length > 0 && HeadlessCli.isCommand(args[0])) {
+            // ND4J keeps non-daemon threads alive, the exit code is the only way out
+            System.exit(HeadlessCli.run(args));
+        }
+
         // Set up and show GUI
         SwingUtilities.invokeLater(new Runnable() {
             @Override
@@ -866,4 +1107,34 @@ public class HousePricePredictionANN {
             }
         });
     }
-}
\ No newline at end of file
+
+    // Usage: --server [port] [maxBatchRows] [maxDelayMicros] [metricsPeriodSeconds]
+    // Serves the saved model bundle; without one, a model is trained on the CSV and saved first
+    private static void runServer(String[] args) throws IOException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : PredictionServer.DEFAULT_PORT;
+        int maxBatchRows = args.length > 2 ? Integer.parseInt(args[2]) : PredictionServer.DEFAULT_MAX_BATCH_ROWS;
+        long maxDelayMicros = args.length > 3 ? Long.parseLong(args[3]) : PredictionServer.DEFAULT_MAX_DELAY_MICROS;
+        long metricsPeriod = args.length > 4 ? Long.parseLong(args[4]) : 60;
+
+        ModelBundle bundle;
+        if (Files.exists(DEFAULT_MODEL_PATH)) {
+            bundle = ModelBundle.load(DEFAULT_MODEL_PATH);
+        } else {
+            System.out.println("No saved model at " + DEFAULT_MODEL_PATH + ", training one.");
+            HousePricePredictionANN app = new HousePricePredictionANN();
+            app.buildModel();
+            app.trainModel();
+            ModelRegistry.Promotion promotion = app.promoteModel(app.evaluateModel());
+            if (!promotion.isAccepted()) {
+                throw new IllegalStateException("Trained model rejected: " + promotion.getReason());
+            }
+            app.saveModel(DEFAULT_MODEL_PATH);
+            bundle = promotion.getVersion().getBundle();
+        }
+
+        PredictionServer server = new PredictionServer(bundle, port, maxBatchRows, maxDelayMicros);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        Metrics.startReporter(metricsPeriod, System.out);
+    }
+}
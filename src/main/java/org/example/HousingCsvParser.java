@@ -0,0 +1,275 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Memory-mapped parser for the Housing CSV schema.
+// Numbers and yes/no flags are decoded straight from the mapped bytes into a reusable
+// primitive row, so no String is created per line or per field.
+// Listings to be priced can also be parsed without the price column (12 feature columns,
+// the handler then receives NaN as price).
+public class HousingCsvParser {
+
+    // Receives every parsed record (price is NaN for unlabeled files). The features array is
+    // reused between calls and must be copied if the handler wants to keep it.
+    public interface RowHandler {
+        void onRow(double price, double[] features);
+    }
+
+    // Number of columns in the CSV (price + 12 features)
+    public static final int NUM_COLUMNS = 13;
+    public static final int NUM_FEATURES = NUM_COLUMNS - 1;
+
+    // Files are mapped window by window so that files larger than 2 GB can be parsed
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private static final byte[] YES = "yes".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FURNISHED = "furnished".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SEMI_FURNISHED = "semi-furnished".getBytes(StandardCharsets.US_ASCII);
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+
+    private final RowHandler handler;
+    // False when the file has no price column, every column is then shifted by one
+    private final boolean labeled;
+    private final int numColumns;
+    private final double[] features = new double[NUM_FEATURES];
+    private double price = Double.NaN;
+    private boolean headerSkipped;
+    private long lineNumber;
+    private long rowCount;
+
+    private HousingCsvParser(RowHandler handler, boolean labeled) {
+        this.handler = handler;
+        this.labeled = labeled;
+        this.numColumns = labeled ? NUM_COLUMNS : NUM_FEATURES;
+    }
+
+    // Parse the whole file (header line is skipped) and return the number of records
+    public static long parse(String filename, RowHandler handler) throws IOException {
+        return parse(Paths.get(filename), handler);
+    }
+
+    public static long parse(Path path, RowHandler handler) throws IOException {
+        return parse(path, true, handler);
+    }
+
+    // labeled = false parses the 12 feature columns only (no price first)
+    public static long parse(Path path, boolean labeled, RowHandler handler) throws IOException {
+        HousingCsvParser parser = new HousingCsvParser(handler, labeled);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                long length = Math.min(WINDOW_SIZE, size - position);
+                boolean lastWindow = position + length == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int consumed = parser.parseWindow(buffer, (int) length, lastWindow);
+                if (consumed == 0) {
+                    throw new IOException("Line " + (parser.lineNumber + 1) + " is longer than the mapping window");
+                }
+                position += consumed;
+            }
+        }
+
+        return parser.rowCount;
+    }
+
+    // True when the first header field is "price", i.e. the file has the labeled schema
+    public static boolean hasPriceColumn(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return true;
+            }
+            String first = header.split(",", 2)[0].replace("\uFEFF", "").replace("\"", "").trim();
+            return first.equalsIgnoreCase("price");
+        }
+    }
+
+    // Parse every complete line of the window and return the number of bytes consumed.
+    // An incomplete trailing line is left for the next window unless this is the last one.
+    private int parseWindow(MappedByteBuffer buffer, int length, boolean lastWindow) throws IOException {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) == '\n') {
+                parseLine(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+
+        if (lastWindow && lineStart < length) {
+            parseLine(buffer, lineStart, length);
+            lineStart = length;
+        }
+        return lineStart;
+    }
+
+    private void parseLine(MappedByteBuffer buffer, int start, int end) throws IOException {
+        lineNumber++;
+
+        // Skip header
+        if (!headerSkipped) {
+            headerSkipped = true;
+            return;
+        }
+
+        // Ignore blank lines (including a lone '\r')
+        int last = end;
+        while (last > start && isWhitespace(buffer.get(last - 1))) {
+            last--;
+        }
+        if (last == start) {
+            return;
+        }
+
+        int column = 0;
+        int fieldStart = start;
+        int firstColumn = labeled ? 0 : 1;
+        for (int i = start; i <= last && column < numColumns; i++) {
+            if (i == last || buffer.get(i) == ',') {
+                parseField(buffer, firstColumn + column, fieldStart, i);
+                column++;
+                fieldStart = i + 1;
+            }
+        }
+
+        if (column < numColumns) {
+            throw new IOException("Line " + lineNumber + ": expected " + numColumns + " columns but found " + column);
+        }
+
+        handler.onRow(price, features);
+        rowCount++;
+    }
+
+    private void parseField(MappedByteBuffer buffer, int column, int start, int end) throws IOException {
+        // Trim whitespace around the value
+        while (start < end && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+
+        switch (column) {
+            case 0: // price
+                price = parseNumber(buffer, start, end);
+                break;
+            case 1: // area
+            case 2: // bedrooms
+            case 3: // bathrooms
+            case 4: // stories
+            case 10: // parking
+                features[column - 1] = parseNumber(buffer, start, end);
+                break;
+            case 12: // furnishing status
+                if (matches(buffer, start, end, FURNISHED, false)) {
+                    features[11] = 0.0;
+                } else if (matches(buffer, start, end, SEMI_FURNISHED, false)) {
+                    features[11] = 1.0;
+                } else { // unfurnished
+                    features[11] = 2.0;
+                }
+                break;
+            default: // yes/no flags
+                features[column - 1] = matches(buffer, start, end, YES, true) ? 1.0 : 0.0;
+                break;
+        }
+    }
+
+    // Decode a decimal number without going through a String. Values with an exponent or
+    // too many digits fall back to Double.parseDouble.
+    private double parseNumber(MappedByteBuffer buffer, int start, int end) throws IOException {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (digits == 18) {
+                    return parseNumberSlow(buffer, start, end);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (inFraction) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !inFraction) {
+                inFraction = true;
+            } else if (b == 'e' || b == 'E') {
+                return parseNumberSlow(buffer, start, end);
+            } else {
+                throw invalidNumber(buffer, start, end);
+            }
+        }
+
+        if (digits == 0) {
+            throw invalidNumber(buffer, start, end);
+        }
+
+        double value = fractionDigits == 0 ? mantissa : mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private double parseNumberSlow(MappedByteBuffer buffer, int start, int end) throws IOException {
+        String text = asString(buffer, start, end);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw invalidNumber(buffer, start, end);
+        }
+    }
+
+    private IOException invalidNumber(MappedByteBuffer buffer, int start, int end) {
+        return new IOException("Line " + lineNumber + ": invalid number '" + asString(buffer, start, end) + "'");
+    }
+
+    private static boolean matches(MappedByteBuffer buffer, int start, int end, byte[] expected, boolean ignoreCase) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            byte b = buffer.get(start + i);
+            if (ignoreCase && b >= 'A' && b <= 'Z') {
+                b = (byte) (b + ('a' - 'A'));
+            }
+            if (b != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static String asString(MappedByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
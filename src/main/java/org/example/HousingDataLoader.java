@@ -2,130 +2,60 @@ package org.example;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class HousingDataLoader {
-    // Define class to store the housing data
-    public static class HousingData {
-        // Features
-        private double price;
-        private double area;
-        private int bedrooms;
-        private int bathrooms;
-        private int stories;
-        private boolean mainroad;
-        private boolean guestroom;
-        private boolean basement;
-        private boolean hotwaterheating;
-        private boolean airconditioning;
-        private int parking;
-        private boolean prefarea;
-        private String furnishingstatus;
-
-        // Normalized features for ANN (will be set after normalization)
-        private double[] normalizedFeatures;
-        private double[] normalizedTarget;
-
-        public HousingData(String[] values) {
-            this.price = Double.parseDouble(values[0]);
-            this.area = Double.parseDouble(values[1]);
-            this.bedrooms = Integer.parseInt(values[2]);
-            this.bathrooms = Integer.parseInt(values[3]);
-            this.stories = Integer.parseInt(values[4]);
-            this.mainroad = values[5].equalsIgnoreCase("yes");
-            this.guestroom = values[6].equalsIgnoreCase("yes");
-            this.basement = values[7].equalsIgnoreCase("yes");
-            this.hotwaterheating = values[8].equalsIgnoreCase("yes");
-            this.airconditioning = values[9].equalsIgnoreCase("yes");
-            this.parking = Integer.parseInt(values[10]);
-            this.prefarea = values[11].equalsIgnoreCase("yes");
-            this.furnishingstatus = values[12];
-        }
-
-        public double getPrice() {
-            return price;
-        }
-
-        public double getArea() {
-            return area;
-        }
-
-        public double[] getNormalizedFeatures() {
-            return normalizedFeatures;
-        }
-
-        public void setNormalizedFeatures(double[] normalizedFeatures) {
-            this.normalizedFeatures = normalizedFeatures;
-        }
-
-        public double[] getNormalizedTarget() {
-            return normalizedTarget;
-        }
-
-        public void setNormalizedTarget(double[] normalizedTarget) {
-            this.normalizedTarget = normalizedTarget;
-        }
-
-        // Returns an array of all features (non-normalized)
-        public double[] getRawFeatures() {
-            double[] features = new double[12];
-            features[0] = area;
-            features[1] = bedrooms;
-            features[2] = bathrooms;
-            features[3] = stories;
-            features[4] = mainroad ? 1.0 : 0.0;
-            features[5] = guestroom ? 1.0 : 0.0;
-            features[6] = basement ? 1.0 : 0.0;
-            features[7] = hotwaterheating ? 1.0 : 0.0;
-            features[8] = airconditioning ? 1.0 : 0.0;
-            features[9] = parking;
-            features[10] = prefarea ? 1.0 : 0.0;
-
-            // Handle furnishing status with one-hot encoding
-            if (furnishingstatus.equals("furnished")) {
-                features[11] = 0.0;
-            } else if (furnishingstatus.equals("semi-furnished")) {
-                features[11] = 1.0;
-            } else { // unfurnished
-                features[11] = 2.0;
-            }
-
-            return features;
-        }
-
-        @Override
-        public String toString() {
-            return "HousingData{" +
-                    "price=" + price +
-                    ", area=" + area +
-                    ", bedrooms=" + bedrooms +
-                    ", bathrooms=" + bathrooms +
-                    ", stories=" + stories +
-                    ", mainroad=" + mainroad +
-                    ", guestroom=" + guestroom +
-                    ", basement=" + basement +
-                    ", hotwaterheating=" + hotwaterheating +
-                    ", airconditioning=" + airconditioning +
-                    ", parking=" + parking +
-                    ", prefarea=" + prefarea +
-                    ", furnishingstatus='" + furnishingstatus + '\'' +
-                    '}';
+    public static final long DEFAULT_SPLIT_SEED = 42;
+
+    private HousingDataset dataset;
+    // Seeded row permutations and the splits cut from them, computed once and dropped
+    // whenever rows are loaded, appended or evicted
+    private final Map<Long, int[]> permutations = new ConcurrentHashMap<>();
+    private final Map<String, DataSplit> splits = new ConcurrentHashMap<>();
+    // Statistics are accumulated while rows are parsed, the mode picks the scaling used
+    private FeatureScaler.Mode scalingMode = FeatureScaler.Mode.MIN_MAX;
+    private FeatureScaler scaler;
+    private volatile CoMoments columnStatistics;
+    // Maximum number of rows kept when appending batches (0 keeps everything)
+    private int windowSize;
+    // With a window: scaler statistics of each batch still in the window, oldest first.
+    // Eviction merges the batches left instead of refitting over every row.
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    // Rows downdated from columnStatistics since the last full pass
+    private long rowsDowndated;
+
+    // Batches kept apart before the two smallest neighbours are merged
+    private static final int MAX_SEGMENTS = 64;
+    // Appended rows are normalized with the current parameters unless a refit moves an
+    // offset or range by more than this fraction of the range
+    private static final double REFIT_TOLERANCE = 1e-4;
+
+    private static final class Segment {
+        final int rows;
+        final FeatureScaler statistics;
+
+        Segment(int rows, FeatureScaler statistics) {
+            this.rows = rows;
+            this.statistics = statistics;
         }
     }
 
-    private List<HousingData> housingDataList;
-    private double[] minFeatures;
-    private double[] maxFeatures;
-    private double minPrice;
-    private double maxPrice;
+    private static final LatencyHistogram LOAD_LATENCY = Metrics.histogram(Metrics.LOAD_DATA);
+    private static final LatencyHistogram NORMALIZE_LATENCY = Metrics.histogram(Metrics.NORMALIZE_DATA);
+    private static final Metrics.Counter ROWS_LOADED = Metrics.counter(Metrics.ROWS_LOADED);
 
     public HousingDataLoader() {
-        housingDataList = new ArrayList<>();
+        dataset = new HousingDataset();
     }
 
-    // Load data from CSV file
+    // Load data from CSV file. Read errors are thrown as UncheckedIOException.
     public void loadData(String filename) {
+        long start = System.nanoTime();
+        int rowsBefore = dataset.size();
+        ensureScaler();
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line;
+            double[] features = new double[HousingDataset.NUM_FEATURES];
             // Skip header
             br.readLine();
 
@@ -136,227 +66,421 @@ public class HousingDataLoader {
                     values[i] = values[i].trim();
                 }
 
-                HousingData data = new HousingData(values);
-                housingDataList.add(data);
+                double price = parseRecord(values, features);
+                dataset.add(price, features);
+                scaler.accept(price, features);
             }
+            dataset.trimToSize();
 
-            System.out.println("Successfully loaded " + housingDataList.size() + " housing records.");
+            System.out.println("Successfully loaded " + dataset.size() + " housing records.");
+            columnStatistics = null;
+            clearSplits();
+            resetSegments();
 
             // Normalize the data after loading
             normalizeData();
+            ROWS_LOADED.add(dataset.size() - rowsBefore);
+            LOAD_LATENCY.recordSince(start);
 
         } catch (IOException e) {
-            System.err.println("Error loading data: " + e.getMessage());
+            throw new UncheckedIOException("Error loading data from " + filename + ": " + e.getMessage(), e);
         }
     }
 
-    // Normalize the data for neural network training
-    private void normalizeData() {
-        if (housingDataList.isEmpty()) {
+    // Load data from CSV file through the memory-mapped parser, which decodes every
+    // field straight from the file bytes instead of splitting lines into Strings
+    public void loadDataMapped(String filename) {
+        long start = System.nanoTime();
+        int rowsBefore = dataset.size();
+        ensureScaler();
+        try {
+            HousingCsvParser.parse(filename, (price, features) -> {
+                dataset.add(price, features);
+                scaler.accept(price, features);
+            });
+            dataset.trimToSize();
+
+            System.out.println("Successfully loaded " + dataset.size() + " housing records.");
+            columnStatistics = null;
+            clearSplits();
+            resetSegments();
+
+            // Normalize the data after loading
+            normalizeData();
+            ROWS_LOADED.add(dataset.size() - rowsBefore);
+            LOAD_LATENCY.recordSince(start);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading data from " + filename + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Decode one CSV record: fills the raw features and returns the price
+    private static double parseRecord(String[] values, double[] features) {
+        features[0] = Double.parseDouble(values[1]);
+        features[1] = Integer.parseInt(values[2]);
+        features[2] = Integer.parseInt(values[3]);
+        features[3] = Integer.parseInt(values[4]);
+        features[4] = values[5].equalsIgnoreCase("yes") ? 1.0 : 0.0;
+        features[5] = values[6].equalsIgnoreCase("yes") ? 1.0 : 0.0;
+        features[6] = values[7].equalsIgnoreCase("yes") ? 1.0 : 0.0;
+        features[7] = values[8].equalsIgnoreCase("yes") ? 1.0 : 0.0;
+        features[8] = values[9].equalsIgnoreCase("yes") ? 1.0 : 0.0;
+        features[9] = Integer.parseInt(values[10]);
+        features[10] = values[11].equalsIgnoreCase("yes") ? 1.0 : 0.0;
+
+        // Handle furnishing status with one-hot encoding
+        if (values[12].equals("furnished")) {
+            features[11] = 0.0;
+        } else if (values[12].equals("semi-furnished")) {
+            features[11] = 1.0;
+        } else { // unfurnished
+            features[11] = 2.0;
+        }
+
+        return Double.parseDouble(values[0]);
+    }
+
+    // Append a batch of listings to the loaded data. Column statistics are updated with
+    // the co-moments of the new rows only (O(batch x d^2)) instead of rescanning the
+    // history, and the oldest rows are evicted when a sliding window is configured.
+    // Only the new rows are normalized unless the scaling parameters really move.
+    public void appendData(String filename) {
+        if (dataset.isEmpty()) {
+            loadDataMapped(filename);
             return;
         }
 
-        // Initialize min/max arrays based on the number of features
-        int numFeatures = housingDataList.get(0).getRawFeatures().length;
-        minFeatures = new double[numFeatures];
-        maxFeatures = new double[numFeatures];
+        int firstNewRow = dataset.size();
+        FeatureScaler batch = newStatistics();
+        IOException failure = null;
+        try {
+            HousingCsvParser.parse(filename, (price, features) -> {
+                dataset.add(price, features);
+                batch.accept(price, features);
+            });
+        } catch (IOException e) {
+            // The rows read before the error are already in the dataset, keep the state consistent
+            failure = e;
+        }
 
-        // Initialize with first record
-        double[] firstFeatures = housingDataList.get(0).getRawFeatures();
-        System.arraycopy(firstFeatures, 0, minFeatures, 0, numFeatures);
-        System.arraycopy(firstFeatures, 0, maxFeatures, 0, numFeatures);
+        int appended = dataset.size() - firstNewRow;
+        if (appended > 0) {
+            addAppendedRows(firstNewRow, batch);
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Error loading data from " + filename + ": " + failure.getMessage(), failure);
+        }
+    }
 
-        minPrice = housingDataList.get(0).getPrice();
-        maxPrice = housingDataList.get(0).getPrice();
+    // Statistics, window and normalization for the rows [firstNewRow, size) just parsed
+    private void addAppendedRows(int firstNewRow, FeatureScaler batch) {
+        int appended = dataset.size() - firstNewRow;
+        clearSplits();
+        scaler.merge(batch);
+        if (windowSize > 0) {
+            addSegment(new Segment(appended, batch));
+        }
 
-        // Find min and max for each feature and the price
-        for (HousingData data : housingDataList) {
-            double[] features = data.getRawFeatures();
-            for (int i = 0; i < numFeatures; i++) {
-                if (features[i] < minFeatures[i]) {
-                    minFeatures[i] = features[i];
-                }
-                if (features[i] > maxFeatures[i]) {
-                    maxFeatures[i] = features[i];
-                }
-            }
+        CoMoments statistics = columnStatistics;
+        if (statistics != null) {
+            CoMoments updated = statistics.copy();
+            updated.merge(CorrelationEngine.compute(dataset, firstNewRow, dataset.size()));
+            columnStatistics = updated;
+        }
 
-            if (data.getPrice() < minPrice) {
-                minPrice = data.getPrice();
-            }
-            if (data.getPrice() > maxPrice) {
-                maxPrice = data.getPrice();
+        int evicted = evictOldestRows();
+
+        if (scaler.fit(REFIT_TOLERANCE)) {
+            scaler.transform(dataset);
+        } else {
+            // Evicting may also have dropped some of the new rows
+            scaler.transform(dataset, Math.max(0, firstNewRow - evicted), dataset.size());
+        }
+
+        System.out.println("Appended " + appended + " housing records (" + evicted + " evicted), " +
+                dataset.size() + " in total.");
+    }
+
+    // Keep at most windowSize rows, the oldest rows are dropped first
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+        resetSegments();
+        if (!dataset.isEmpty() && evictOldestRows() > 0) {
+            normalizeData();
+        }
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    private int evictOldestRows() {
+        if (windowSize <= 0 || dataset.size() <= windowSize) {
+            return 0;
+        }
+        int count = dataset.size() - windowSize;
+
+        CoMoments statistics = columnStatistics;
+        if (statistics != null) {
+            // Downdates lose precision, recompute once the whole window has been replaced
+            rowsDowndated += count;
+            if (rowsDowndated >= windowSize) {
+                columnStatistics = null;
+            } else {
+                CoMoments updated = statistics.copy();
+                updated.subtract(CorrelationEngine.compute(dataset, 0, count));
+                columnStatistics = updated;
             }
         }
 
-        // Normalize each record
-        for (HousingData data : housingDataList) {
-            double[] features = data.getRawFeatures();
-            double[] normalizedFeatures = new double[numFeatures];
+        // Drop the statistics of the evicted batches; min/max cannot be downdated, so the
+        // batch cut in two is refitted on the rows it keeps (at most one batch)
+        int dropped = 0;
+        while (dropped + segments.getFirst().rows <= count) {
+            dropped += segments.removeFirst().rows;
+        }
+        if (dropped < count) {
+            int kept = segments.removeFirst().rows - (count - dropped);
+            FeatureScaler head = newStatistics();
+            head.accept(dataset, count, count + kept);
+            segments.addFirst(new Segment(kept, head));
+        }
 
-            for (int i = 0; i < numFeatures; i++) {
-                // Avoid division by zero
-                if (maxFeatures[i] - minFeatures[i] == 0) {
-                    normalizedFeatures[i] = 0.0;
-                } else {
-                    normalizedFeatures[i] = (features[i] - minFeatures[i]) / (maxFeatures[i] - minFeatures[i]);
-                }
+        dataset.removeFirst(count);
+        clearSplits();
+
+        // Merged statistics of the window, fitted against the parameters in use
+        FeatureScaler merged = newStatistics();
+        for (Segment segment : segments) {
+            merged.merge(segment.statistics);
+        }
+        merged.setParameters(scaler);
+        scaler = merged;
+        return count;
+    }
+
+    // Scaler statistics for a part of the rows, with a reservoir when the scaler keeps one
+    private FeatureScaler newStatistics() {
+        boolean quantiles = scaler != null ? scaler.hasQuantiles() : scalingMode == FeatureScaler.Mode.ROBUST;
+        return new FeatureScaler(scalingMode, quantiles ? FeatureScaler.DEFAULT_RESERVOIR_SIZE : 0);
+    }
+
+    private void addSegment(Segment segment) {
+        segments.addLast(segment);
+        if (segments.size() <= MAX_SEGMENTS) {
+            return;
+        }
+        // Merge the two neighbours with the fewest rows, which keeps the batch refitted on
+        // eviction small
+        List<Segment> list = new ArrayList<>(segments);
+        int best = 0;
+        for (int i = 1; i < list.size() - 1; i++) {
+            if (list.get(i).rows + list.get(i + 1).rows < list.get(best).rows + list.get(best + 1).rows) {
+                best = i;
             }
+        }
+        Segment first = list.get(best);
+        first.statistics.merge(list.get(best + 1).statistics);
+        list.set(best, new Segment(first.rows + list.get(best + 1).rows, first.statistics));
+        list.remove(best + 1);
+        segments.clear();
+        segments.addAll(list);
+    }
 
-            // Normalize price as the target
-            double[] normalizedTarget = new double[1];
-            normalizedTarget[0] = (data.getPrice() - minPrice) / (maxPrice - minPrice);
+    // One segment over the loaded rows when a window is set, none otherwise
+    private void resetSegments() {
+        segments.clear();
+        if (windowSize > 0 && !dataset.isEmpty()) {
+            FeatureScaler statistics = newStatistics();
+            statistics.accept(dataset, 0, dataset.size());
+            segments.add(new Segment(dataset.size(), statistics));
+        }
+    }
 
-            data.setNormalizedFeatures(normalizedFeatures);
-            data.setNormalizedTarget(normalizedTarget);
+    private void ensureScaler() {
+        if (scaler == null) {
+            scaler = new FeatureScaler(scalingMode);
         }
+    }
+
+    // Normalize the data for neural network training, in place over the dataset
+    private void normalizeData() {
+        if (dataset.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        scaler.fit();
+        scaler.transform(dataset);
+        NORMALIZE_LATENCY.recordSince(start);
 
-        System.out.println("Data normalization completed.");
+        System.out.println("Data normalization completed (" + scaler.getMode() + ").");
     }
 
-    // Split data into training and testing sets
-    public Map<String, List<HousingData>> splitData(double trainingRatio) {
-        Collections.shuffle(housingDataList, new Random(42)); // Shuffle with fixed seed for reproducibility
+    // Choose how features and price are scaled. Already loaded data is normalized again.
+    public void setScalingMode(FeatureScaler.Mode mode) {
+        scalingMode = mode;
+        if (scaler == null) {
+            return;
+        }
+        if (mode == FeatureScaler.Mode.ROBUST && !scaler.hasQuantiles()) {
+            // The quantile reservoir was not collected during loading, rebuild the statistics
+            scaler = FeatureScaler.fit(dataset, mode);
+            resetSegments();
+        } else {
+            scaler.setMode(mode);
+        }
+        normalizeData();
+    }
 
-        int trainingSize = (int) (housingDataList.size() * trainingRatio);
-        List<HousingData> trainingData = new ArrayList<>(housingDataList.subList(0, trainingSize));
-        List<HousingData> testingData = new ArrayList<>(housingDataList.subList(trainingSize, housingDataList.size()));
+    public FeatureScaler.Mode getScalingMode() {
+        return scalingMode;
+    }
 
-        Map<String, List<HousingData>> splitData = new HashMap<>();
-        splitData.put("training", trainingData);
-        splitData.put("testing", testingData);
+    public FeatureScaler getScaler() {
+        return scaler;
+    }
 
-        System.out.println("Data split: " + trainingData.size() + " training samples, " +
-                testingData.size() + " testing samples");
+    // Train/test split with the default seed, cached after the first call
+    public DataSplit getSplit(double trainingRatio) {
+        return getSplit(trainingRatio, DEFAULT_SPLIT_SEED);
+    }
+
+    public DataSplit getSplit(double trainingRatio, long seed) {
+        return splits.computeIfAbsent(trainingRatio + "/" + seed, key -> {
+            DataSplit split = new DataSplit(dataset, getPermutation(seed), trainingRatio, seed);
+            System.out.println("Data split: " + split.getTraining().size() + " training samples, " +
+                    split.getTesting().size() + " testing samples");
+            return split;
+        });
+    }
+
+    // Seeded permutation of the row indices (same permutation as Collections.shuffle).
+    // Shared by every split with that seed, must not be modified.
+    private int[] getPermutation(long seed) {
+        return permutations.computeIfAbsent(seed, key -> {
+            int size = dataset.size();
+            int[] permutation = new int[size];
+            for (int i = 0; i < size; i++) {
+                permutation[i] = i;
+            }
+            Random random = new Random(seed);
+            for (int i = size; i > 1; i--) {
+                int j = random.nextInt(i);
+                int tmp = permutation[i - 1];
+                permutation[i - 1] = permutation[j];
+                permutation[j] = tmp;
+            }
+            return permutation;
+        });
+    }
 
+    private void clearSplits() {
+        splits.clear();
+        permutations.clear();
+    }
+
+    // Split data into training and testing sets
+    public Map<String, HousingDataView> splitData(double trainingRatio) {
+        DataSplit split = getSplit(trainingRatio);
+        Map<String, HousingDataView> splitData = new HashMap<>();
+        splitData.put("training", split.getTraining());
+        splitData.put("testing", split.getTesting());
         return splitData;
     }
 
     // Get feature dimensions for ANN setup
     public int getInputDimension() {
-        if (housingDataList.isEmpty()) {
+        if (dataset.isEmpty()) {
             return 0;
         }
-        return housingDataList.get(0).getNormalizedFeatures().length;
+        return HousingDataset.NUM_FEATURES;
     }
 
     // Get data in format ready for neural network
-    public double[][] getFeatureMatrix(List<HousingData> dataList) {
-        double[][] features = new double[dataList.size()][getInputDimension()];
-        for (int i = 0; i < dataList.size(); i++) {
-            features[i] = dataList.get(i).getNormalizedFeatures();
+    public double[][] getFeatureMatrix(HousingDataView dataView) {
+        int numFeatures = getInputDimension();
+        float[] normalizedFeatures = dataset.getNormalizedFeatures();
+        double[][] features = new double[dataView.size()][numFeatures];
+        for (int i = 0; i < dataView.size(); i++) {
+            int offset = dataView.datasetRow(i) * numFeatures;
+            for (int j = 0; j < numFeatures; j++) {
+                features[i][j] = normalizedFeatures[offset + j];
+            }
         }
         return features;
     }
 
-    public double[][] getTargetMatrix(List<HousingData> dataList) {
-        double[][] targets = new double[dataList.size()][1]; // 1 output (price)
-        for (int i = 0; i < dataList.size(); i++) {
-            targets[i] = dataList.get(i).getNormalizedTarget();
+    public double[][] getTargetMatrix(HousingDataView dataView) {
+        float[] normalizedTargets = dataset.getNormalizedTargets();
+        double[][] targets = new double[dataView.size()][1]; // 1 output (price)
+        for (int i = 0; i < dataView.size(); i++) {
+            targets[i][0] = normalizedTargets[dataView.datasetRow(i)];
         }
         return targets;
     }
 
+    // Normalize raw features the same way as the training data
+    public void normalizeFeatures(double[] features, double[] dest) {
+        scaler.transformFeatures(features, dest);
+    }
+
     // Denormalize the price prediction
     public double denormalizePrice(double normalizedPrice) {
-        return normalizedPrice * (maxPrice - minPrice) + minPrice;
+        return scaler.denormalizePrice(normalizedPrice);
     }
 
     // Get all data
-    public List<HousingData> getAllData() {
-        return housingDataList;
+    public HousingDataset getAllData() {
+        return dataset;
     }
 
     public double[] getMinFeatures() {
+        double[] minFeatures = new double[HousingDataset.NUM_FEATURES];
+        for (int i = 0; i < minFeatures.length; i++) {
+            minFeatures[i] = scaler.getMin(i);
+        }
         return minFeatures;
     }
 
     public double[] getMaxFeatures() {
+        double[] maxFeatures = new double[HousingDataset.NUM_FEATURES];
+        for (int i = 0; i < maxFeatures.length; i++) {
+            maxFeatures[i] = scaler.getMax(i);
+        }
         return maxFeatures;
     }
 
     public double getAvgArea() {
-        if (housingDataList.isEmpty()) {
+        if (dataset.isEmpty()) {
             return 0;
         }
-
-        double totalArea = 0;
-        for (HousingData data : housingDataList) {
-            totalArea += data.getArea();
-        }
-
-        return totalArea / housingDataList.size();
+        return getColumnStatistics().getMean(0);
     }
 
     
 
 
-    public double[][] calculateCorrelationMatrix() {
-        // Number of features + price
-        int numFeatures = getInputDimension();
-        int matrixSize = numFeatures + 1; // +1 for price
-        double[][] correlationMatrix = new double[matrixSize][matrixSize];
-
-        if (housingDataList.isEmpty()) {
-            return correlationMatrix;
+    // Means, standard deviations and co-moments of every column (features + price),
+    // computed once per loaded dataset and shared by all consumers
+    public CoMoments getColumnStatistics() {
+        CoMoments statistics = columnStatistics;
+        if (statistics == null) {
+            statistics = CorrelationEngine.compute(dataset);
+            columnStatistics = statistics;
+            rowsDowndated = 0;
         }
+        return statistics;
+    }
 
-        // Create a matrix of all data (features + price)
-        double[][] allData = new double[housingDataList.size()][matrixSize];
-        for (int i = 0; i < housingDataList.size(); i++) {
-            HousingData data = housingDataList.get(i);
-            double[] features = data.getRawFeatures();
-
-            // Copy features
-            System.arraycopy(features, 0, allData[i], 0, numFeatures);
-
-            // Add price as the last column
-            allData[i][matrixSize - 1] = data.getPrice();
-        }
-
-        // Calculate mean for each column
-        double[] means = new double[matrixSize];
-        for (int col = 0; col < matrixSize; col++) {
-            double sum = 0;
-            for (int row = 0; row < housingDataList.size(); row++) {
-                sum += allData[row][col];
-            }
-            means[col] = sum / housingDataList.size();
-        }
-
-        // Calculate correlation matrix
-        for (int i = 0; i < matrixSize; i++) {
-            // Diagonal is always 1 (correlation of a variable with itself)
-            correlationMatrix[i][i] = 1.0;
-
-            for (int j = i + 1; j < matrixSize; j++) {
-                // Calculate covariance
-                double covariance = 0;
-                double stdDevI = 0;
-                double stdDevJ = 0;
-
-                for (int k = 0; k < housingDataList.size(); k++) {
-                    double diffI = allData[k][i] - means[i];
-                    double diffJ = allData[k][j] - means[j];
-
-                    covariance += diffI * diffJ;
-                    stdDevI += diffI * diffI;
-                    stdDevJ += diffJ * diffJ;
-                }
-
-                // Calculate correlation
-                double correlation = 0;
-                if (stdDevI > 0 && stdDevJ > 0) {
-                    correlation = covariance / (Math.sqrt(stdDevI) * Math.sqrt(stdDevJ));
-                }
-
-                // Correlation is symmetric
-                correlationMatrix[i][j] = correlation;
-                correlationMatrix[j][i] = correlation;
-            }
+    public double[][] calculateCorrelationMatrix() {
+        if (dataset.isEmpty()) {
+            // Number of features + price
+            int matrixSize = getInputDimension() + 1;
+            return new double[matrixSize][matrixSize];
         }
-
-        return correlationMatrix;
+        return getColumnStatistics().correlationMatrix();
     }
 
 
@@ -369,14 +493,14 @@ public class HousingDataLoader {
         loader.loadData("src/main/resources/Housing.csv");
 
         // Split into training and testing sets
-        Map<String, List<HousingData>> splitData = loader.splitData(0.8); // 80% training, 20% testing
+        Map<String, HousingDataView> splitData = loader.splitData(0.8); // 80% training, 20% testing
 
         // Get data in format ready for neural network
-        List<HousingData> trainingData = splitData.get("training");
+        HousingDataView trainingData = splitData.get("training");
         double[][] trainingFeatures = loader.getFeatureMatrix(trainingData);
         double[][] trainingTargets = loader.getTargetMatrix(trainingData);
 
-        List<HousingData> testingData = splitData.get("testing");
+        HousingDataView testingData = splitData.get("testing");
         double[][] testingFeatures = loader.getFeatureMatrix(testingData);
         double[][] testingTargets = loader.getTargetMatrix(testingData);
 
@@ -393,13 +517,13 @@ public class HousingDataLoader {
             System.out.println("\nSample normalized features: ");
             for (int i = 0; i < Math.min(3, trainingData.size()); i++) {
                 System.out.print("Sample " + i + " features: ");
-                double[] features = trainingData.get(i).getNormalizedFeatures();
+                double[] features = trainingFeatures[i];
                 for (double feature : features) {
                     System.out.printf("%.4f ", feature);
                 }
                 System.out.println();
-                System.out.println("Target (normalized price): " + trainingData.get(i).getNormalizedTarget()[0]);
-                System.out.println("Original price: " + trainingData.get(i).getPrice());
+                System.out.println("Target (normalized price): " + trainingTargets[i][0]);
+                System.out.println("Original price: " + trainingData.getPrice(i));
                 System.out.println();
             }
         }
@@ -0,0 +1,151 @@
+package org.example;
+
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// Mini-batch iterator over the normalized rows of a HousingDataView.
+// Batches are gathered straight from the dataset's normalized block; the row order is
+// reshuffled on every reset so each epoch sees the batches in a different order.
+public class HousingDataSetIterator implements DataSetIterator {
+    private final HousingDataView data;
+    private final int batchSize;
+    private final boolean shuffle;
+    private final Random random;
+    private final int[] order;
+    private int cursor;
+    private DataSetPreProcessor preProcessor;
+
+    // Reused between batches (only touched by the thread calling next)
+    private float[] featureBuffer;
+    private float[] targetBuffer;
+
+    public HousingDataSetIterator(HousingDataView data, int batchSize) {
+        this(data, batchSize, true, 123);
+    }
+
+    public HousingDataSetIterator(HousingDataView data, int batchSize, boolean shuffle, long seed) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.data = data;
+        this.batchSize = batchSize;
+        this.shuffle = shuffle;
+        this.random = new Random(seed);
+        this.order = new int[data.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        if (shuffle) {
+            shuffleOrder();
+        }
+    }
+
+    @Override
+    public DataSet next(int num) {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int numFeatures = HousingDataset.NUM_FEATURES;
+        int rows = Math.min(num, order.length - cursor);
+        if (featureBuffer == null || featureBuffer.length != rows * numFeatures) {
+            featureBuffer = new float[rows * numFeatures];
+            targetBuffer = new float[rows];
+        }
+
+        HousingDataset dataset = data.getDataset();
+        float[] normalizedFeatures = dataset.getNormalizedFeatures();
+        for (int r = 0; r < rows; r++) {
+            int row = data.datasetRow(order[cursor + r]);
+            System.arraycopy(normalizedFeatures, row * numFeatures, featureBuffer, r * numFeatures, numFeatures);
+            targetBuffer[r] = dataset.getNormalizedTarget(row);
+        }
+        cursor += rows;
+
+        INDArray features = Nd4j.create(featureBuffer, new long[]{rows, numFeatures}, DataType.FLOAT);
+        INDArray targets = Nd4j.create(targetBuffer, new long[]{rows, 1}, DataType.FLOAT);
+        DataSet batch = new DataSet(features, targets);
+        if (preProcessor != null) {
+            preProcessor.preProcess(batch);
+        }
+        return batch;
+    }
+
+    @Override
+    public DataSet next() {
+        return next(batchSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < order.length;
+    }
+
+    @Override
+    public int inputColumns() {
+        return HousingDataset.NUM_FEATURES;
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return 1;
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        cursor = 0;
+        if (shuffle) {
+            shuffleOrder();
+        }
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    public int numExamples() {
+        return order.length;
+    }
+
+    private void shuffleOrder() {
+        for (int i = order.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+// A subset of a HousingDataset described by row indices (e.g. the training or
+// testing half of a split). Only the indices are stored, never the data.
+public class HousingDataView {
+    private final HousingDataset dataset;
+    private final int[] rows;
+    private final int from;
+    private final int to;
+
+    public HousingDataView(HousingDataset dataset, int[] rows) {
+        this(dataset, rows, 0, rows.length);
+    }
+
+    // View over rows[from, to)
+    public HousingDataView(HousingDataset dataset, int[] rows, int from, int to) {
+        if (from < 0 || to > rows.length || from > to) {
+            throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ") for " + rows.length + " rows");
+        }
+        this.dataset = dataset;
+        this.rows = rows;
+        this.from = from;
+        this.to = to;
+    }
+
+    public HousingDataset getDataset() {
+        return dataset;
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    public boolean isEmpty() {
+        return to == from;
+    }
+
+    // Rows [from, to) of this view, sharing the same index array
+    public HousingDataView subView(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ") for " + size() + " rows");
+        }
+        return new HousingDataView(dataset, rows, this.from + from, this.from + to);
+    }
+
+    // Index in the underlying dataset of the i-th row of the view
+    public int datasetRow(int i) {
+        return rows[from + i];
+    }
+
+    public double getPrice(int i) {
+        return dataset.getPrice(datasetRow(i));
+    }
+
+    public double[] getRawFeatures(int i) {
+        return dataset.getRawFeatures(datasetRow(i));
+    }
+
+    public void copyRawFeatures(int i, double[] dest, int offset) {
+        dataset.copyRawFeatures(datasetRow(i), dest, offset);
+    }
+}
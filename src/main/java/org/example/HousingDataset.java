@@ -0,0 +1,292 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Column store for the housing records: one primitive array per CSV column plus a
+// row-major block holding the normalized features used by the neural network.
+public class HousingDataset {
+    // Number of input features (same order as the raw feature vector)
+    public static final int NUM_FEATURES = 12;
+    // Features + price, the layout used by the correlation matrix
+    public static final int NUM_COLUMNS = NUM_FEATURES + 1;
+    public static final int PRICE_COLUMN = NUM_FEATURES;
+
+    // Bit positions of the yes/no flags inside the flags column
+    private static final int MAINROAD = 0;
+    private static final int GUESTROOM = 1;
+    private static final int BASEMENT = 2;
+    private static final int HOTWATERHEATING = 3;
+    private static final int AIRCONDITIONING = 4;
+    private static final int PREFAREA = 5;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private int size;
+
+    // Raw columns
+    private double[] price;
+    private double[] area;
+    private short[] bedrooms;
+    private short[] bathrooms;
+    private short[] stories;
+    private short[] parking;
+    private byte[] flags;
+    private byte[] furnishing;
+
+    // Normalized features (size x NUM_FEATURES, row-major) and normalized price
+    private float[] normalizedFeatures;
+    private float[] normalizedTargets;
+
+    public HousingDataset() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public HousingDataset(int capacity) {
+        capacity = Math.max(capacity, 1);
+        price = new double[capacity];
+        area = new double[capacity];
+        bedrooms = new short[capacity];
+        bathrooms = new short[capacity];
+        stories = new short[capacity];
+        parking = new short[capacity];
+        flags = new byte[capacity];
+        furnishing = new byte[capacity];
+    }
+
+    // Append a record. The features array uses the raw feature layout
+    // (area, bedrooms, bathrooms, stories, mainroad, guestroom, basement,
+    // hotwaterheating, airconditioning, parking, prefarea, furnishing status).
+    public void add(double price, double[] features) {
+        if (size == this.price.length) {
+            grow();
+        }
+
+        int row = size;
+        this.price[row] = price;
+        area[row] = features[0];
+        bedrooms[row] = toShort(features[1]);
+        bathrooms[row] = toShort(features[2]);
+        stories[row] = toShort(features[3]);
+        parking[row] = toShort(features[9]);
+        furnishing[row] = (byte) features[11];
+
+        int bits = 0;
+        bits |= flag(features[4], MAINROAD);
+        bits |= flag(features[5], GUESTROOM);
+        bits |= flag(features[6], BASEMENT);
+        bits |= flag(features[7], HOTWATERHEATING);
+        bits |= flag(features[8], AIRCONDITIONING);
+        bits |= flag(features[10], PREFAREA);
+        flags[row] = (byte) bits;
+
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getPrice(int row) {
+        return price[row];
+    }
+
+    public double getArea(int row) {
+        return area[row];
+    }
+
+    // Value of one column of the correlation layout (features first, price last)
+    public double getValue(int row, int column) {
+        switch (column) {
+            case 0:
+                return area[row];
+            case 1:
+                return bedrooms[row];
+            case 2:
+                return bathrooms[row];
+            case 3:
+                return stories[row];
+            case 4:
+                return bit(row, MAINROAD);
+            case 5:
+                return bit(row, GUESTROOM);
+            case 6:
+                return bit(row, BASEMENT);
+            case 7:
+                return bit(row, HOTWATERHEATING);
+            case 8:
+                return bit(row, AIRCONDITIONING);
+            case 9:
+                return parking[row];
+            case 10:
+                return bit(row, PREFAREA);
+            case 11:
+                return furnishing[row];
+            case PRICE_COLUMN:
+                return price[row];
+            default:
+                throw new IndexOutOfBoundsException("Column " + column);
+        }
+    }
+
+    // Write the raw features of a row into dest (NUM_FEATURES values from offset)
+    public void copyRawFeatures(int row, double[] dest, int offset) {
+        int bits = flags[row];
+        dest[offset] = area[row];
+        dest[offset + 1] = bedrooms[row];
+        dest[offset + 2] = bathrooms[row];
+        dest[offset + 3] = stories[row];
+        dest[offset + 4] = bits >> MAINROAD & 1;
+        dest[offset + 5] = bits >> GUESTROOM & 1;
+        dest[offset + 6] = bits >> BASEMENT & 1;
+        dest[offset + 7] = bits >> HOTWATERHEATING & 1;
+        dest[offset + 8] = bits >> AIRCONDITIONING & 1;
+        dest[offset + 9] = parking[row];
+        dest[offset + 10] = bits >> PREFAREA & 1;
+        dest[offset + 11] = furnishing[row];
+    }
+
+    // Write a full row in the correlation layout (features then price) into dest
+    public void copyRow(int row, double[] dest, int offset) {
+        copyRawFeatures(row, dest, offset);
+        dest[offset + PRICE_COLUMN] = price[row];
+    }
+
+    // Returns an array of all features (non-normalized) for one row
+    public double[] getRawFeatures(int row) {
+        double[] features = new double[NUM_FEATURES];
+        copyRawFeatures(row, features, 0);
+        return features;
+    }
+
+    public boolean isNormalized() {
+        return normalizedFeatures != null;
+    }
+
+    // Row-major normalized feature block, allocated on first use
+    public float[] getNormalizedFeatures() {
+        if (normalizedFeatures == null || normalizedFeatures.length < size * NUM_FEATURES) {
+            normalizedFeatures = new float[price.length * NUM_FEATURES];
+        }
+        return normalizedFeatures;
+    }
+
+    public float[] getNormalizedTargets() {
+        if (normalizedTargets == null || normalizedTargets.length < size) {
+            normalizedTargets = new float[price.length];
+        }
+        return normalizedTargets;
+    }
+
+    public float getNormalizedTarget(int row) {
+        return normalizedTargets[row];
+    }
+
+    // Drop the oldest rows (sliding window). Remaining rows are shifted to the front so
+    // row indices and the normalized block layout stay contiguous.
+    public void removeFirst(int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (count > size) {
+            throw new IndexOutOfBoundsException("Cannot remove " + count + " rows from " + size);
+        }
+        int remaining = size - count;
+        System.arraycopy(price, count, price, 0, remaining);
+        System.arraycopy(area, count, area, 0, remaining);
+        System.arraycopy(bedrooms, count, bedrooms, 0, remaining);
+        System.arraycopy(bathrooms, count, bathrooms, 0, remaining);
+        System.arraycopy(stories, count, stories, 0, remaining);
+        System.arraycopy(parking, count, parking, 0, remaining);
+        System.arraycopy(flags, count, flags, 0, remaining);
+        System.arraycopy(furnishing, count, furnishing, 0, remaining);
+        if (normalizedFeatures != null) {
+            System.arraycopy(normalizedFeatures, count * NUM_FEATURES, normalizedFeatures, 0, remaining * NUM_FEATURES);
+        }
+        if (normalizedTargets != null) {
+            System.arraycopy(normalizedTargets, count, normalizedTargets, 0, remaining);
+        }
+        size = remaining;
+    }
+
+    // Release the unused capacity once loading is finished
+    public void trimToSize() {
+        if (size == price.length || size == 0) {
+            return;
+        }
+        resize(size);
+    }
+
+    // 64-bit FNV-1a hash of the raw columns, identifies the data a model was trained on
+    public long fingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, size);
+        for (int row = 0; row < size; row++) {
+            hash = mix(hash, Double.doubleToLongBits(price[row]));
+            hash = mix(hash, Double.doubleToLongBits(area[row]));
+            hash = mix(hash, ((long) bedrooms[row] << 48) | ((long) (bathrooms[row] & 0xffff) << 32) |
+                    ((stories[row] & 0xffff) << 16) | (parking[row] & 0xffff));
+            hash = mix(hash, ((flags[row] & 0xff) << 8) | (furnishing[row] & 0xff));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Approximate heap used by the columns, in bytes
+    public long estimatedBytes() {
+        long bytes = (long) price.length * (8 + 8 + 2 * 4 + 1 + 1);
+        if (normalizedFeatures != null) {
+            bytes += (long) normalizedFeatures.length * 4;
+        }
+        if (normalizedTargets != null) {
+            bytes += (long) normalizedTargets.length * 4;
+        }
+        return bytes;
+    }
+
+    private void grow() {
+        resize(price.length + (price.length >> 1) + 1);
+    }
+
+    private void resize(int capacity) {
+        price = Arrays.copyOf(price, capacity);
+        area = Arrays.copyOf(area, capacity);
+        bedrooms = Arrays.copyOf(bedrooms, capacity);
+        bathrooms = Arrays.copyOf(bathrooms, capacity);
+        stories = Arrays.copyOf(stories, capacity);
+        parking = Arrays.copyOf(parking, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        furnishing = Arrays.copyOf(furnishing, capacity);
+        if (normalizedFeatures != null) {
+            normalizedFeatures = Arrays.copyOf(normalizedFeatures, capacity * NUM_FEATURES);
+        }
+        if (normalizedTargets != null) {
+            normalizedTargets = Arrays.copyOf(normalizedTargets, capacity);
+        }
+    }
+
+    private double bit(int row, int position) {
+        return flags[row] >> position & 1;
+    }
+
+    private static int flag(double value, int position) {
+        return value == 1.0 ? 1 << position : 0;
+    }
+
+    private static short toShort(double value) {
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE || value != Math.rint(value)) {
+            throw new IllegalArgumentException("Expected a small integer but got " + value);
+        }
+        return (short) value;
+    }
+}
@@ -0,0 +1,305 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Searches the ModelConfig space (hidden layers, hidden nodes, learning rate, l2).
+// Candidates come from a grid or from random sampling and are trained concurrently on a
+// fixed pool of worker threads, each on its own network. Successive halving trains all
+// candidates for a few epochs, keeps the best 1/eta and gives the survivors eta times
+// more epochs, so weak configurations stop early.
+public class HyperparameterSearch {
+
+    // One configuration and its training state
+    public static class Candidate {
+        private final ModelConfig config;
+        private MultiLayerNetwork network;
+        private INDArray bestParams;
+        private int epochs;
+        private long trainingMillis;
+        private double validationMse = Double.POSITIVE_INFINITY;
+        private int rung;
+        private boolean stoppedEarly;
+
+        Candidate(ModelConfig config) {
+            this.config = config;
+        }
+
+        public ModelConfig getConfig() {
+            return config;
+        }
+
+        public MultiLayerNetwork getNetwork() {
+            return network;
+        }
+
+        public int getEpochs() {
+            return epochs;
+        }
+
+        public long getTrainingMillis() {
+            return trainingMillis;
+        }
+
+        // RMSE of the normalized price on the validation set
+        public double getValidationRmse() {
+            return Math.sqrt(validationMse);
+        }
+
+        // Last successive halving round the candidate took part in (0 for a plain search)
+        public int getRung() {
+            return rung;
+        }
+
+        public boolean isStoppedEarly() {
+            return stoppedEarly;
+        }
+    }
+
+    private final HousingDataLoader dataLoader;
+    private TrainingConfig trainingConfig = new TrainingConfig().setValidationFraction(0.1).setPatience(50);
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private int[] hiddenLayers = {1, 2, 3};
+    private int[] hiddenNodes = {10, 20, 40};
+    private double[] learningRates = {0.0003, 0.001, 0.003};
+    private double[] l2Values = {0.0, 1e-4, 1e-3};
+
+    public HyperparameterSearch(HousingDataLoader dataLoader) {
+        this.dataLoader = dataLoader;
+    }
+
+    public HyperparameterSearch setHiddenLayers(int... hiddenLayers) {
+        this.hiddenLayers = requireValues(hiddenLayers);
+        return this;
+    }
+
+    public HyperparameterSearch setHiddenNodes(int... hiddenNodes) {
+        this.hiddenNodes = requireValues(hiddenNodes);
+        return this;
+    }
+
+    public HyperparameterSearch setLearningRates(double... learningRates) {
+        this.learningRates = requireValues(learningRates);
+        return this;
+    }
+
+    public HyperparameterSearch setL2Values(double... l2Values) {
+        this.l2Values = requireValues(l2Values);
+        return this;
+    }
+
+    // Batch size, validation fraction, patience and seed used for every candidate;
+    // the number of epochs is set by the search
+    public HyperparameterSearch setTrainingConfig(TrainingConfig trainingConfig) {
+        if (trainingConfig.getValidationFraction() <= 0) {
+            throw new IllegalArgumentException("The search needs a validation fraction");
+        }
+        this.trainingConfig = trainingConfig;
+        return this;
+    }
+
+    // Number of candidates trained at the same time
+    public HyperparameterSearch setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // Every combination of the parameter values
+    public List<ModelConfig> gridCandidates() {
+        List<ModelConfig> candidates = new ArrayList<>();
+        for (int layers : hiddenLayers) {
+            for (int nodes : hiddenNodes) {
+                for (double learningRate : learningRates) {
+                    for (double l2 : l2Values) {
+                        candidates.add(new ModelConfig()
+                                .setHiddenLayers(layers)
+                                .setHiddenNodes(nodes)
+                                .setLearningRate(learningRate)
+                                .setL2(l2));
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    // Random configurations: layers and nodes are picked from the listed values, the
+    // learning rate and l2 are drawn log-uniformly between the smallest and largest value
+    public List<ModelConfig> randomCandidates(int count, long seed) {
+        Random random = new Random(seed);
+        List<ModelConfig> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            candidates.add(new ModelConfig()
+                    .setHiddenLayers(hiddenLayers[random.nextInt(hiddenLayers.length)])
+                    .setHiddenNodes(hiddenNodes[random.nextInt(hiddenNodes.length)])
+                    .setLearningRate(logUniform(random, learningRates))
+                    .setL2(logUniform(random, l2Values)));
+        }
+        return candidates;
+    }
+
+    // Train every candidate for the given number of epochs (early stopping still applies)
+    public List<Candidate> search(List<ModelConfig> configs, int epochs) {
+        return successiveHalving(configs, epochs, epochs, 2);
+    }
+
+    // Successive halving: round k trains the survivors up to minEpochs * eta^k epochs in
+    // total, then keeps the best ceil(n / eta) of them, until one candidate is left or
+    // maxEpochs is reached. Returns all candidates ranked by validation RMSE.
+    public List<Candidate> successiveHalving(List<ModelConfig> configs, int minEpochs, int maxEpochs, int eta) {
+        if (minEpochs <= 0 || maxEpochs < minEpochs || eta < 2) {
+            throw new IllegalArgumentException("Invalid schedule: minEpochs=" + minEpochs +
+                    ", maxEpochs=" + maxEpochs + ", eta=" + eta);
+        }
+
+        // All workers read the same cached split
+        DataSplit split = dataLoader.getSplit(0.8);
+        HousingDataView trainingData = split.getTraining(trainingConfig.getValidationFraction());
+        HousingDataView validationData = split.getValidation(trainingConfig.getValidationFraction());
+
+        List<Candidate> all = new ArrayList<>();
+        for (ModelConfig config : configs) {
+            all.add(new Candidate(config));
+        }
+
+        long start = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Candidate> survivors = new ArrayList<>(all);
+            int targetEpochs = minEpochs;
+            int rung = 0;
+            while (true) {
+                System.out.println("Rung " + rung + ": training " + survivors.size() +
+                        " candidates up to " + targetEpochs + " epochs");
+                trainRung(pool, survivors, targetEpochs, rung, trainingData, validationData);
+                survivors.sort(Comparator.comparingDouble(c -> c.validationMse));
+
+                if (survivors.size() <= 1 || targetEpochs >= maxEpochs) {
+                    break;
+                }
+                survivors = new ArrayList<>(survivors.subList(0, (survivors.size() + eta - 1) / eta));
+                targetEpochs = (int) Math.min(maxEpochs, (long) targetEpochs * eta);
+                rung++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Later rungs first, then by validation RMSE
+        all.sort(Comparator.comparingInt((Candidate c) -> -c.rung).thenComparingDouble(c -> c.validationMse));
+        System.out.println("Search over " + all.size() + " candidates finished in " +
+                (System.currentTimeMillis() - start) + " ms on " + parallelism + " workers");
+        return all;
+    }
+
+    private void trainRung(ExecutorService pool, List<Candidate> candidates, int targetEpochs, int rung,
+                           HousingDataView trainingData, HousingDataView validationData) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            candidate.rung = rung;
+            // Candidates whose validation loss stalled keep their score without more training
+            if (candidate.stoppedEarly || candidate.epochs >= targetEpochs) {
+                continue;
+            }
+            futures.add(pool.submit(() -> train(candidate, targetEpochs - candidate.epochs, trainingData, validationData)));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Training a candidate failed", e.getCause());
+        }
+    }
+
+    private void train(Candidate candidate, int epochs, HousingDataView trainingData, HousingDataView validationData) {
+        if (candidate.network == null) {
+            candidate.network = candidate.config.createNetwork(dataLoader.getInputDimension());
+        }
+        // The pool already runs candidates side by side, each one trains on a single worker
+        TrainingConfig config = trainingConfig.copy().setEpochs(epochs).setWorkers(1);
+        TrainingController.Result result = new TrainingController(candidate.network, dataLoader, config)
+                .train(trainingData, validationData);
+
+        candidate.epochs += result.getEpochs();
+        candidate.trainingMillis += result.getElapsedMillis();
+        candidate.stoppedEarly = result.getEpochs() < epochs;
+        if (result.getBestValidationLoss() < candidate.validationMse) {
+            candidate.validationMse = result.getBestValidationLoss();
+            candidate.bestParams = candidate.network.params().dup();
+        } else if (candidate.bestParams != null) {
+            // This round did not beat the previous one, go back to the earlier weights
+            candidate.network.setParams(candidate.bestParams);
+        }
+    }
+
+    public static void printLeaderboard(List<Candidate> candidates) {
+        System.out.println("\nRank  RMSE(val)  Epochs  Time(ms)  Rung  Layers  Nodes  LearningRate  L2");
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate c = candidates.get(i);
+            ModelConfig config = c.getConfig();
+            System.out.printf("%4d  %9.5f  %6d  %8d  %4d  %6d  %5d  %12.6f  %.6f%s%n",
+                    i + 1, c.getValidationRmse(), c.getEpochs(), c.getTrainingMillis(), c.getRung(),
+                    config.getHiddenLayers(), config.getHiddenNodes(), config.getLearningRate(), config.getL2(),
+                    c.isStoppedEarly() ? "  (stopped early)" : "");
+        }
+    }
+
+    private static double logUniform(Random random, double[] values) {
+        double min = Arrays.stream(values).min().getAsDouble();
+        double max = Arrays.stream(values).max().getAsDouble();
+        if (min <= 0) {
+            // Zero cannot be drawn on a log scale, pick one of the listed values instead
+            return values[random.nextInt(values.length)];
+        }
+        return Math.exp(Math.log(min) + random.nextDouble() * (Math.log(max) - Math.log(min)));
+    }
+
+    private static int[] requireValues(int[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("At least one value is required");
+        }
+        return values.clone();
+    }
+
+    private static double[] requireValues(double[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("At least one value is required");
+        }
+        return values.clone();
+    }
+
+    // Usage: HyperparameterSearch [grid|random] [candidates] [minEpochs] [maxEpochs]
+    public static void main(String[] args) {
+        String strategy = args.length > 0 ? args[0] : "random";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 27;
+        int minEpochs = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int maxEpochs = args.length > 3 ? Integer.parseInt(args[3]) : 450;
+
+        HousingDataLoader dataLoader = new HousingDataLoader();
+        dataLoader.loadData("src/main/resources/Housing.csv");
+
+        HyperparameterSearch search = new HyperparameterSearch(dataLoader);
+        List<ModelConfig> configs = strategy.equals("grid") ? search.gridCandidates() : search.randomCandidates(count, 42);
+        List<Candidate> leaderboard = search.successiveHalving(configs, minEpochs, maxEpochs, 3);
+        printLeaderboard(leaderboard);
+    }
+}
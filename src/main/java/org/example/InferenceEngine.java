@@ -0,0 +1,17 @@
+package org.example;
+
+// Forward pass of an exported price network. Implementations are immutable and shared
+// between threads; every thread passes its own scratch buffer from newScratch().
+public interface InferenceEngine {
+
+    float[] newScratch();
+
+    // Price for one raw feature vector
+    double predict(double[] features, float[] scratch);
+
+    // Normalized output for the normalized input held in scratch[0, numInputs)
+    float forward(float[] scratch);
+
+    // Memory taken by weights and biases, in bytes
+    long parameterBytes();
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Thread-safe inference over a frozen copy of a trained model.
+// Single-row predictions run on the shared, immutable InferenceEngine with one scratch
+// buffer per thread, so callers never wait on each other. Batch predictions borrow one of
+// several ND4J replicas; all replicas are views of the same read-only parameter array.
+// The pool never sees later training of the source network.
+public class InferencePool {
+    private final InferenceEngine engine;
+    private final InferencePrecision precision;
+    private final ThreadLocal<float[]> scratch;
+    private final FeatureScaler scaler;
+    private final MultiLayerNetwork frozen;
+    private final BlockingQueue<MultiLayerNetwork> replicas;
+
+    public InferencePool(MultiLayerNetwork network, FeatureScaler scaler, int replicaCount, InferencePrecision precision) {
+        if (replicaCount <= 0) {
+            throw new IllegalArgumentException("Replica count must be positive: " + replicaCount);
+        }
+        this.engine = precision.createEngine(network, scaler);
+        this.precision = precision;
+        this.scratch = ThreadLocal.withInitial(engine::newScratch);
+        this.scaler = scaler;
+
+        // One snapshot of the parameters, shared by every replica without copying
+        INDArray params = network.params().dup();
+        this.replicas = new ArrayBlockingQueue<>(replicaCount);
+        for (int i = 0; i < replicaCount; i++) {
+            MultiLayerNetwork replica = new MultiLayerNetwork(network.getLayerWiseConfigurations().clone());
+            replica.init(params, false);
+            replicas.add(replica);
+        }
+        this.frozen = replicas.peek();
+    }
+
+    public InferencePool(MultiLayerNetwork network, FeatureScaler scaler) {
+        this(network, scaler, Runtime.getRuntime().availableProcessors(), InferencePrecision.FLOAT32);
+    }
+
+    public InferencePool(ModelBundle bundle) {
+        this(bundle.getNetwork(), bundle.getScaler());
+    }
+
+    public double predictPrice(double[] features) {
+        return engine.predict(features, scratch.get());
+    }
+
+    // One forward pass on a borrowed replica, waits when all replicas are busy
+    public double[] predictBatch(double[][] features) {
+        MultiLayerNetwork replica;
+        try {
+            replica = replicas.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a model replica", e);
+        }
+        try {
+            return new BatchScorer(replica, scaler).predict(features);
+        } finally {
+            replicas.add(replica);
+        }
+    }
+
+    // Same frozen parameters served with another engine precision
+    public InferencePool withPrecision(InferencePrecision precision) {
+        return new InferencePool(frozen, scaler, getReplicaCount(), precision);
+    }
+
+    public InferencePrecision getPrecision() {
+        return precision;
+    }
+
+    public int getReplicaCount() {
+        return replicas.remainingCapacity() + replicas.size();
+    }
+}
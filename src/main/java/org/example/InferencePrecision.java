@@ -0,0 +1,16 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+// Numeric precision of the exported inference engine
+public enum InferencePrecision {
+    // float weights and activations
+    FLOAT32,
+    // int8 weights with one scale per layer, float activations
+    INT8;
+
+    public InferenceEngine createEngine(MultiLayerNetwork network, FeatureScaler scaler) {
+        MlpEngine engine = MlpExport.export(network, scaler);
+        return this == INT8 ? QuantizedMlpEngine.quantize(engine) : engine;
+    }
+}
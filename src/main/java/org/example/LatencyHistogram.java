@@ -0,0 +1,155 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Concurrent latency histogram in nanoseconds with log-linear buckets: exact below 32 ns,
+// then 16 buckets per power of two (values are reported within 1/16 of their true value).
+// Every bucket and total is a LongAdder, so recording threads never wait on each other.
+// Snapshots are taken while recording continues and may be off by the calls in flight.
+public class LatencyHistogram implements Metrics.LatencyMXBean {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = LINEAR_LIMIT + (62 - SUB_BITS) * SUB_BUCKETS;
+
+    // Counts, total and maximum of a histogram at one point in time
+    public static class Snapshot {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] counts;
+
+        Snapshot(long count, long totalNanos, long maxNanos, long[] counts) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.counts = counts;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        // Upper bound of the bucket holding the q-quantile, never above the maximum
+        public long getPercentileNanos(double q) {
+            long total = 0;
+            for (long bucketCount : counts) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+
+    private final String name;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[bucket(nanos)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    // Records the time elapsed since a System.nanoTime() taken at the start of the call
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < LINEAR_LIMIT) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - SUB_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int offset = bucket - LINEAR_LIMIT;
+        int exponent = offset / SUB_BUCKETS + SUB_BITS + 1;
+        long width = 1L << (exponent - SUB_BITS);
+        return (SUB_BUCKETS + offset % SUB_BUCKETS) * width + width - 1;
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new Snapshot(count.sum(), totalNanos.sum(), maxNanos.get(), counts);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return snapshot().getMeanNanos() / 1e3;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return snapshot().getPercentileNanos(0.50) / 1e3;
+    }
+
+    @Override
+    public double getP95Micros() {
+        return snapshot().getPercentileNanos(0.95) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return snapshot().getPercentileNanos(0.99) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1e3;
+    }
+}
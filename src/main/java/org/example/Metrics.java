@@ -0,0 +1,176 @@
+package org.example;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide latency histograms and counters, created on first use and registered as
+// MXBeans (org.example:type=Latency,name=... and org.example:type=Counter,name=...).
+// Callers keep the returned instance in a static field, recording is then a few LongAdder
+// increments. report() formats everything as a table, startReporter() prints it periodically.
+public final class Metrics {
+    public static final String LOAD_DATA = "loadData";
+    public static final String NORMALIZE_DATA = "normalizeData";
+    public static final String TRAINING_EPOCH = "trainingEpoch";
+    public static final String EVALUATE_MODEL = "evaluateModel";
+    public static final String PREDICT_PRICE = "predictPrice";
+    public static final String PREDICT_BATCH = "predictBatch";
+
+    public static final String ROWS_LOADED = "rowsLoaded";
+    public static final String BATCH_ROWS = "batchRowsPredicted";
+
+    public interface LatencyMXBean {
+        long getCount();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP95Micros();
+
+        double getP99Micros();
+
+        double getMaxMicros();
+    }
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    public static class Counter implements CounterMXBean {
+        private final LongAdder count = new LongAdder();
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long value) {
+            count.add(value);
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+    }
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final long STARTED = System.nanoTime();
+
+    private static ScheduledExecutorService reporter;
+
+    private Metrics() {
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, key -> register("Latency", key, new LatencyHistogram(key)));
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> register("Counter", key, new Counter()));
+    }
+
+    private static <T> T register(String type, String name, T bean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.example:type=" + type + ",name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+            }
+        } catch (JMException e) {
+            // Metrics still work without JMX
+            System.err.println("Could not register metric " + name + ": " + e.getMessage());
+        }
+        return bean;
+    }
+
+    // Counts and latencies of every metric; rates are per second over the given interval,
+    // or since startup when the previous counts are not known
+    public static String report() {
+        return report(null, (System.nanoTime() - STARTED) / 1e9);
+    }
+
+    private static String report(Map<String, Long> previousCounts, double seconds) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-20s %10s %10s %10s %10s %10s %10s %10s%n",
+                "metric", "count", "rate/s", "mean", "p50", "p95", "p99", "max"));
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            long delta = snapshot.getCount() - (previousCounts != null ? previousCounts.getOrDefault(entry.getKey(), 0L) : 0);
+            report.append(String.format("%-20s %10d %10.1f %10s %10s %10s %10s %10s%n",
+                    entry.getKey(), snapshot.getCount(), delta / seconds,
+                    formatNanos(snapshot.getMeanNanos()),
+                    formatNanos(snapshot.getPercentileNanos(0.50)),
+                    formatNanos(snapshot.getPercentileNanos(0.95)),
+                    formatNanos(snapshot.getPercentileNanos(0.99)),
+                    formatNanos(snapshot.getMaxNanos())));
+        }
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(COUNTERS).entrySet()) {
+            long count = entry.getValue().getCount();
+            long delta = count - (previousCounts != null ? previousCounts.getOrDefault(entry.getKey(), 0L) : 0);
+            report.append(String.format("%-20s %10d %10.1f%n", entry.getKey(), count, delta / seconds));
+        }
+        return report.toString();
+    }
+
+    private static Map<String, Long> counts() {
+        Map<String, Long> counts = new HashMap<>();
+        HISTOGRAMS.forEach((name, histogram) -> counts.put(name, histogram.getCount()));
+        COUNTERS.forEach((name, counter) -> counts.put(name, counter.getCount()));
+        return counts;
+    }
+
+    static String formatNanos(double nanos) {
+        if (nanos < 1e3) {
+            return String.format("%.0fns", nanos);
+        } else if (nanos < 1e6) {
+            return String.format("%.1fus", nanos / 1e3);
+        } else if (nanos < 1e9) {
+            return String.format("%.1fms", nanos / 1e6);
+        }
+        return String.format("%.2fs", nanos / 1e9);
+    }
+
+    // Print the report every period on a daemon thread, replacing a running reporter
+    public static synchronized void startReporter(long periodSeconds, PrintStream out) {
+        if (periodSeconds <= 0) {
+            throw new IllegalArgumentException("Report period must be positive: " + periodSeconds);
+        }
+        stopReporter();
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicReference<Map<String, Long>> previous = new AtomicReference<>(counts());
+        AtomicLong previousTime = new AtomicLong(System.nanoTime());
+        reporter.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            Map<String, Long> current = counts();
+            out.print("Metrics over the last " + periodSeconds + " s\n" +
+                    report(previous.get(), (now - previousTime.get()) / 1e9));
+            previous.set(current);
+            previousTime.set(now);
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Coalesces prediction requests from many threads into batched forward passes.
+// A single batching thread takes the first waiting request, then keeps collecting for at
+// most maxDelayMicros or until maxBatchRows rows are gathered, runs one batch prediction
+// and completes every request with its slice of the result.
+public class MicroBatcher implements AutoCloseable {
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    // Scores a feature matrix in one pass (e.g. BatchScorer::predict)
+    public interface BatchPredictor {
+        double[] predict(double[][] features);
+    }
+
+    private static class Request {
+        final double[][] rows;
+        final CompletableFuture<double[]> result = new CompletableFuture<>();
+
+        Request(double[][] rows) {
+            this.rows = rows;
+        }
+    }
+
+    private final BatchPredictor predictor;
+    private final int maxBatchRows;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    // Batch statistics, only written by the batching thread
+    private volatile long batches;
+    private volatile long rowsPredicted;
+
+    public MicroBatcher(BatchPredictor predictor, int maxBatchRows, long maxDelayMicros) {
+        if (maxBatchRows <= 0 || maxDelayMicros < 0) {
+            throw new IllegalArgumentException("Invalid batching window: " + maxBatchRows + " rows, " + maxDelayMicros + " us");
+        }
+        this.predictor = predictor;
+        this.maxBatchRows = maxBatchRows;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.worker = new Thread(this::run, "micro-batcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public CompletableFuture<double[]> submit(double[][] rows) {
+        if (!running) {
+            throw new IllegalStateException("Batcher is closed");
+        }
+        Request request = new Request(rows);
+        queue.add(request);
+        // close() may have drained the queue between the check above and the add
+        if (!running && queue.remove(request)) {
+            request.result.completeExceptionally(new IllegalStateException("Batcher is closed"));
+        }
+        return request.result;
+    }
+
+    // Blocking variant for request handler threads, gives up after the timeout
+    public double[] predict(double[][] rows) throws InterruptedException {
+        CompletableFuture<double[]> result = submit(rows);
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new IllegalStateException("Prediction timed out after " + timeoutMillis + " ms");
+        }
+    }
+
+    public MicroBatcher setTimeoutMillis(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeoutMillis);
+        }
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getRowsPredicted() {
+        return rowsPredicted;
+    }
+
+    private void run() {
+        try {
+            collect();
+        } finally {
+            failQueued();
+        }
+    }
+
+    private void collect() {
+        List<Request> pending = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                pending.add(first);
+                int rows = first.rows.length;
+
+                // Keep collecting until the window closes or the batch is full
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (rows < maxBatchRows) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    pending.add(next);
+                    rows += next.rows.length;
+                }
+
+                predictBatch(pending, rows);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(pending, new IllegalStateException("Batcher is closed"));
+                break;
+            } catch (Throwable e) {
+                // Keep serving: one failed batch must not strand the requests behind it
+                fail(pending, e);
+            } finally {
+                pending.clear();
+            }
+        }
+    }
+
+    private void predictBatch(List<Request> requests, int rows) {
+        try {
+            double[][] features = new double[rows][];
+            int offset = 0;
+            for (Request request : requests) {
+                System.arraycopy(request.rows, 0, features, offset, request.rows.length);
+                offset += request.rows.length;
+            }
+
+            double[] prices = predictor.predict(features);
+            offset = 0;
+            for (Request request : requests) {
+                double[] slice = new double[request.rows.length];
+                System.arraycopy(prices, offset, slice, 0, slice.length);
+                offset += slice.length;
+                request.result.complete(slice);
+            }
+            batches++;
+            rowsPredicted += rows;
+        } catch (Throwable e) {
+            fail(requests, e);
+        }
+    }
+
+    private static void fail(List<Request> requests, Throwable cause) {
+        for (Request request : requests) {
+            request.result.completeExceptionally(cause);
+        }
+    }
+
+    // Completes whatever is still queued once the batching thread is gone or closing
+    private void failQueued() {
+        List<Request> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        fail(leftover, new IllegalStateException("Batcher is closed"));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued();
+    }
+}
@@ -0,0 +1,208 @@
+package org.example;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// Forward pass of a dense ReLU network on plain float arrays, without ND4J.
+// Weights are stored per layer as [out][in] flattened row by row so every output node is
+// one contiguous dot product. Input scaling (x * scale + shift) and output denormalization
+// are folded in, so predict() takes raw features and returns a price. The engine is
+// immutable and can be shared between threads; each thread passes its own scratch buffer.
+public class MlpEngine implements InferenceEngine {
+    private static final int FORMAT_MAGIC = 0x4d4c5031; // "MLP1"
+
+    private final int[] layerSizes;
+    private final float[][] weights;
+    private final float[][] biases;
+    private final boolean[] relu;
+    private final float[] inputScale;
+    private final float[] inputShift;
+    private final double outputScale;
+    private final double outputShift;
+    private final int maxWidth;
+
+    // layerSizes[0] inputs, weights[l] has layerSizes[l + 1] x layerSizes[l] entries
+    public MlpEngine(int[] layerSizes, float[][] weights, float[][] biases, boolean[] relu,
+                     float[] inputScale, float[] inputShift, double outputScale, double outputShift) {
+        int layers = layerSizes.length - 1;
+        if (layers < 1 || weights.length != layers || biases.length != layers || relu.length != layers) {
+            throw new IllegalArgumentException("Inconsistent layer count");
+        }
+        for (int l = 0; l < layers; l++) {
+            if (weights[l].length != layerSizes[l] * layerSizes[l + 1] || biases[l].length != layerSizes[l + 1]) {
+                throw new IllegalArgumentException("Wrong parameter size in layer " + l);
+            }
+        }
+        if (layerSizes[layers] != 1) {
+            throw new IllegalArgumentException("Expected a single output, got " + layerSizes[layers]);
+        }
+        if (inputScale.length != layerSizes[0] || inputShift.length != layerSizes[0]) {
+            throw new IllegalArgumentException("Expected " + layerSizes[0] + " input scaling constants");
+        }
+        this.layerSizes = layerSizes.clone();
+        this.weights = weights;
+        this.biases = biases;
+        this.relu = relu.clone();
+        this.inputScale = inputScale;
+        this.inputShift = inputShift;
+        this.outputScale = outputScale;
+        this.outputShift = outputShift;
+
+        int width = 0;
+        for (int size : layerSizes) {
+            width = Math.max(width, size);
+        }
+        this.maxWidth = width;
+    }
+
+    public int getNumInputs() {
+        return layerSizes[0];
+    }
+
+    public int[] getLayerSizes() {
+        return layerSizes.clone();
+    }
+
+    public float[] getWeights(int layer) {
+        return weights[layer];
+    }
+
+    public float[] getBiases(int layer) {
+        return biases[layer];
+    }
+
+    public boolean isRelu(int layer) {
+        return relu[layer];
+    }
+
+    public float getInputScale(int i) {
+        return inputScale[i];
+    }
+
+    public float getInputShift(int i) {
+        return inputShift[i];
+    }
+
+    public double getOutputScale() {
+        return outputScale;
+    }
+
+    public double getOutputShift() {
+        return outputShift;
+    }
+
+    // Scratch buffer large enough for predict()/forward(), reuse it across calls
+    @Override
+    public float[] newScratch() {
+        return new float[2 * maxWidth];
+    }
+
+    @Override
+    public double predict(double[] features, float[] scratch) {
+        int numInputs = layerSizes[0];
+        for (int i = 0; i < numInputs; i++) {
+            scratch[i] = (float) (features[i] * inputScale[i] + inputShift[i]);
+        }
+        return forward(scratch) * outputScale + outputShift;
+    }
+
+    @Override
+    public float forward(float[] scratch) {
+        int in = 0;
+        int out = maxWidth;
+        for (int l = 0; l < weights.length; l++) {
+            int nIn = layerSizes[l];
+            int nOut = layerSizes[l + 1];
+            float[] w = weights[l];
+            float[] b = biases[l];
+            for (int o = 0; o < nOut; o++) {
+                float sum = b[o];
+                int row = o * nIn;
+                for (int i = 0; i < nIn; i++) {
+                    sum += w[row + i] * scratch[in + i];
+                }
+                scratch[out + o] = relu[l] && sum < 0 ? 0f : sum;
+            }
+            int tmp = in;
+            in = out;
+            out = tmp;
+        }
+        return scratch[in];
+    }
+
+    @Override
+    public long parameterBytes() {
+        long bytes = 0;
+        for (int l = 0; l < weights.length; l++) {
+            bytes += 4L * (weights[l].length + biases[l].length);
+        }
+        return bytes;
+    }
+
+    // Plain binary format (DataOutputStream), readable without any ML library
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(FORMAT_MAGIC);
+        out.writeInt(layerSizes.length);
+        for (int size : layerSizes) {
+            out.writeInt(size);
+        }
+        for (int l = 0; l < weights.length; l++) {
+            out.writeBoolean(relu[l]);
+            writeFloats(out, weights[l]);
+            writeFloats(out, biases[l]);
+        }
+        writeFloats(out, inputScale);
+        writeFloats(out, inputShift);
+        out.writeDouble(outputScale);
+        out.writeDouble(outputShift);
+        out.flush();
+    }
+
+    public static MlpEngine read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != FORMAT_MAGIC) {
+            throw new IOException("Not an MLP engine file");
+        }
+        int[] layerSizes = new int[in.readInt()];
+        for (int i = 0; i < layerSizes.length; i++) {
+            layerSizes[i] = in.readInt();
+        }
+        int layers = layerSizes.length - 1;
+        float[][] weights = new float[layers][];
+        float[][] biases = new float[layers][];
+        boolean[] relu = new boolean[layers];
+        for (int l = 0; l < layers; l++) {
+            relu[l] = in.readBoolean();
+            weights[l] = readFloats(in, layerSizes[l] * layerSizes[l + 1]);
+            biases[l] = readFloats(in, layerSizes[l + 1]);
+        }
+        float[] inputScale = readFloats(in, layerSizes[0]);
+        float[] inputShift = readFloats(in, layerSizes[0]);
+        double outputScale = in.readDouble();
+        double outputShift = in.readDouble();
+        return new MlpEngine(layerSizes, weights, biases, relu, inputScale, inputShift, outputScale, outputShift);
+    }
+
+    private static void writeFloats(DataOutputStream out, float[] values) throws IOException {
+        out.writeInt(values.length);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    private static float[] readFloats(DataInputStream in, int expected) throws IOException {
+        int length = in.readInt();
+        if (length != expected) {
+            throw new IOException("Expected " + expected + " values, found " + length);
+        }
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readFloat();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,133 @@
+package org.example;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.activations.impl.ActivationReLU;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Flattens a trained MultiLayerNetwork (dense ReLU layers, identity output) and its
+// scaler into an MlpEngine, and checks the engine against ND4J.
+public class MlpExport {
+
+    // Largest accepted difference between engine and ND4J on the normalized output
+    public static final double DEFAULT_TOLERANCE = 1e-4;
+
+    public static MlpEngine export(MultiLayerNetwork network, FeatureScaler scaler) {
+        Layer[] layers = network.getLayers();
+        int[] layerSizes = new int[layers.length + 1];
+        float[][] weights = new float[layers.length][];
+        float[][] biases = new float[layers.length][];
+        boolean[] relu = new boolean[layers.length];
+
+        for (int l = 0; l < layers.length; l++) {
+            // DL4J stores W as [nIn, nOut] and b as [1, nOut]
+            INDArray w = layers[l].getParam("W");
+            INDArray b = layers[l].getParam("b");
+            if (w == null || b == null) {
+                throw new IllegalArgumentException("Layer " + l + " is not a dense layer");
+            }
+            int nIn = (int) w.rows();
+            int nOut = (int) w.columns();
+            if (l > 0 && nIn != layerSizes[l]) {
+                throw new IllegalArgumentException("Layer " + l + " expects " + nIn + " inputs, previous layer has " + layerSizes[l]);
+            }
+            layerSizes[l] = nIn;
+            layerSizes[l + 1] = nOut;
+
+            weights[l] = new float[nIn * nOut];
+            for (int o = 0; o < nOut; o++) {
+                for (int i = 0; i < nIn; i++) {
+                    weights[l][o * nIn + i] = w.getFloat(i, o);
+                }
+            }
+            biases[l] = new float[nOut];
+            for (int o = 0; o < nOut; o++) {
+                biases[l][o] = b.getFloat(o);
+            }
+
+            IActivation activation = ((BaseLayer) layers[l].conf().getLayer()).getActivationFn();
+            if (activation instanceof ActivationReLU) {
+                relu[l] = true;
+            } else if (!(activation instanceof ActivationIdentity)) {
+                throw new IllegalArgumentException("Unsupported activation in layer " + l + ": " + activation);
+            }
+        }
+
+        // (x - offset) / range written as x * scale + shift, constant columns map to 0
+        int numInputs = layerSizes[0];
+        float[] inputScale = new float[numInputs];
+        float[] inputShift = new float[numInputs];
+        for (int i = 0; i < numInputs; i++) {
+            double range = scaler.getRange(i);
+            inputScale[i] = range == 0 ? 0f : (float) (1.0 / range);
+            inputShift[i] = range == 0 ? 0f : (float) (-scaler.getOffset(i) / range);
+        }
+        return new MlpEngine(layerSizes, weights, biases, relu, inputScale, inputShift,
+                scaler.getRange(HousingDataset.PRICE_COLUMN), scaler.getOffset(HousingDataset.PRICE_COLUMN));
+    }
+
+    public static MlpEngine export(ModelBundle bundle) {
+        return export(bundle.getNetwork(), bundle.getScaler());
+    }
+
+    // Largest absolute difference of the normalized output between the engine and ND4J
+    // over the normalized rows of the dataset
+    public static double maxDifference(MultiLayerNetwork network, MlpEngine engine, HousingDataset dataset) {
+        int numFeatures = HousingDataset.NUM_FEATURES;
+        float[] normalized = dataset.getNormalizedFeatures();
+        INDArray input = Nd4j.create(normalized, new long[]{dataset.size(), numFeatures}, DataType.FLOAT);
+        float[] expected = network.output(input).toFloatVector();
+
+        float[] scratch = engine.newScratch();
+        double maxDifference = 0;
+        for (int row = 0; row < dataset.size(); row++) {
+            System.arraycopy(normalized, row * numFeatures, scratch, 0, numFeatures);
+            maxDifference = Math.max(maxDifference, Math.abs(engine.forward(scratch) - expected[row]));
+        }
+        return maxDifference;
+    }
+
+    public static void verify(MultiLayerNetwork network, MlpEngine engine, HousingDataset dataset, double tolerance) {
+        double difference = maxDifference(network, engine, dataset);
+        if (difference > tolerance) {
+            throw new IllegalStateException("Engine output differs from ND4J by " + difference +
+                    " (tolerance " + tolerance + ")");
+        }
+        System.out.println("Engine matches ND4J on " + dataset.size() + " rows (max difference " + difference + ")");
+    }
+
+    // Usage: MlpExport <model bundle> <engine file>
+    // Exports the bundle, checks it on the bundled dataset and writes the engine file
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: MlpExport <model bundle> <engine file>");
+            System.exit(1);
+        }
+        ModelBundle bundle = ModelBundle.load(Paths.get(args[0]));
+        MlpEngine engine = export(bundle);
+
+        // Check on the rows normalized with the bundle's own scaling
+        HousingDataLoader loader = new HousingDataLoader();
+        loader.loadDataMapped("src/main/resources/Housing.csv");
+        HousingDataset dataset = loader.getAllData();
+        bundle.getScaler().transform(dataset);
+        verify(bundle.getNetwork(), engine, dataset, DEFAULT_TOLERANCE);
+
+        Path path = Paths.get(args[1]);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            engine.write(out);
+        }
+        System.out.println("Engine written to " + path + " (" + Files.size(path) + " bytes)");
+    }
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// Everything needed to predict without the training CSV: the network (DL4J model zip),
+// the scaling parameters it was trained with, its ModelConfig, a fingerprint of the
+// training data and the test metrics the model was accepted with. The extra state is
+// stored as one object entry inside the model zip.
+public class ModelBundle {
+    // Zip entry holding the state below (ModelSerializer rewrites the zip for every entry)
+    private static final String BUNDLE_KEY = "housePriceBundle";
+    private static final String MODEL_CONFIG_KEY = "modelConfig";
+    private static final String SCALER_MODE_KEY = "scalerMode";
+    private static final String SCALER_OFFSET_KEY = "scalerOffset";
+    private static final String SCALER_RANGE_KEY = "scalerRange";
+    private static final String FINGERPRINT_KEY = "datasetFingerprint";
+    private static final String ROWS_KEY = "datasetRows";
+    // Optional, absent in bundles saved before metrics were stored
+    private static final String METRICS_KEY = "testMetrics";
+
+    private final MultiLayerNetwork network;
+    private final ModelConfig modelConfig;
+    private final FeatureScaler scaler;
+    private final long datasetFingerprint;
+    private final int datasetRows;
+    private final Map<String, Double> metrics;
+
+    public ModelBundle(MultiLayerNetwork network, ModelConfig modelConfig, FeatureScaler scaler,
+                       long datasetFingerprint, int datasetRows) {
+        this(network, modelConfig, scaler, datasetFingerprint, datasetRows, Collections.emptyMap());
+    }
+
+    public ModelBundle(MultiLayerNetwork network, ModelConfig modelConfig, FeatureScaler scaler,
+                       long datasetFingerprint, int datasetRows, Map<String, Double> metrics) {
+        this.network = network;
+        this.modelConfig = modelConfig;
+        this.scaler = scaler;
+        this.datasetFingerprint = datasetFingerprint;
+        this.datasetRows = datasetRows;
+        this.metrics = Collections.unmodifiableMap(new HashMap<>(metrics));
+    }
+
+    // Write the bundle next to the target and move it in place, so readers never see a
+    // half-written file
+    public void save(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, "model", ".tmp");
+        try {
+            ModelSerializer.writeModel(network, tmp.toFile(), false);
+
+            int numColumns = HousingDataset.NUM_COLUMNS;
+            double[] offset = new double[numColumns];
+            double[] range = new double[numColumns];
+            for (int i = 0; i < numColumns; i++) {
+                offset[i] = scaler.getOffset(i);
+                range[i] = scaler.getRange(i);
+            }
+            Map<String, Object> state = new HashMap<>();
+            state.put(MODEL_CONFIG_KEY, modelConfig);
+            state.put(SCALER_MODE_KEY, scaler.getMode().name());
+            state.put(SCALER_OFFSET_KEY, offset);
+            state.put(SCALER_RANGE_KEY, range);
+            state.put(FINGERPRINT_KEY, datasetFingerprint);
+            state.put(ROWS_KEY, datasetRows);
+            state.put(METRICS_KEY, new HashMap<>(metrics));
+            ModelSerializer.addObjectToFile(tmp.toFile(), BUNDLE_KEY, state);
+
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static ModelBundle load(Path path) throws IOException {
+        MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(path.toFile(), false);
+        Map<String, Object> state = readState(path);
+        ModelConfig modelConfig = get(state, MODEL_CONFIG_KEY, path);
+        String mode = get(state, SCALER_MODE_KEY, path);
+        double[] offset = get(state, SCALER_OFFSET_KEY, path);
+        double[] range = get(state, SCALER_RANGE_KEY, path);
+        Long fingerprint = get(state, FINGERPRINT_KEY, path);
+        Integer rows = get(state, ROWS_KEY, path);
+        @SuppressWarnings("unchecked")
+        Map<String, Double> metrics = (Map<String, Double>) state.getOrDefault(METRICS_KEY, Collections.emptyMap());
+
+        FeatureScaler scaler = FeatureScaler.fromParameters(FeatureScaler.Mode.valueOf(mode), offset, range);
+        return new ModelBundle(network, modelConfig, scaler, fingerprint, rows, metrics);
+    }
+
+    private static Map<String, Object> readState(Path path) throws IOException {
+        try {
+            Map<String, Object> state = ModelSerializer.getObjectFromFile(path.toFile(), BUNDLE_KEY);
+            if (state == null) {
+                throw new IOException("Not a model bundle: " + path);
+            }
+            return state;
+        } catch (RuntimeException e) {
+            throw new IOException("Cannot read model bundle " + path, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Map<String, Object> state, String key, Path path) throws IOException {
+        Object value = state.get(key);
+        if (value == null) {
+            throw new IOException("Missing entry '" + key + "' in model bundle " + path);
+        }
+        return (T) value;
+    }
+
+    // True when the bundle was trained on exactly this data
+    public boolean matches(HousingDataset dataset) {
+        return dataset.size() == datasetRows && dataset.fingerprint() == datasetFingerprint;
+    }
+
+    public double predictPrice(double[] features) {
+        double[] normalizedFeatures = new double[HousingDataset.NUM_FEATURES];
+        scaler.transformFeatures(features, normalizedFeatures);
+        INDArray output = network.output(Nd4j.create(new double[][]{normalizedFeatures}));
+        return scaler.denormalizePrice(output.getDouble(0, 0));
+    }
+
+    // Prices of raw feature rows in one forward pass, each bundle through its own scaling
+    public double[] predictBatch(double[][] features) {
+        double[][] normalizedFeatures = new double[features.length][HousingDataset.NUM_FEATURES];
+        for (int i = 0; i < features.length; i++) {
+            scaler.transformFeatures(features[i], normalizedFeatures[i]);
+        }
+        INDArray output = network.output(Nd4j.create(normalizedFeatures));
+        double[] prices = new double[features.length];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = scaler.denormalizePrice(output.getDouble(i, 0));
+        }
+        return prices;
+    }
+
+    public MultiLayerNetwork getNetwork() {
+        return network;
+    }
+
+    public ModelConfig getModelConfig() {
+        return modelConfig;
+    }
+
+    public FeatureScaler getScaler() {
+        return scaler;
+    }
+
+    public long getDatasetFingerprint() {
+        return datasetFingerprint;
+    }
+
+    public int getDatasetRows() {
+        return datasetRows;
+    }
+
+    // Test metrics of the accepted version, empty for a candidate or an older bundle
+    public Map<String, Double> getMetrics() {
+        return metrics;
+    }
+}
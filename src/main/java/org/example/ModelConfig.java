@@ -0,0 +1,147 @@
+package org.example;
+
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.io.Serializable;
+
+// Architecture and optimizer settings of the price network. The defaults are the
+// original model: two hidden ReLU layers of 20 nodes, Adam(0.001) and l2(1e-4).
+public class ModelConfig implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int hiddenLayers = 2;
+    private int hiddenNodes = 20;
+    private double learningRate = 0.001;
+    private double l2 = 1e-4;
+    private long seed = 123;
+
+    public int getHiddenLayers() {
+        return hiddenLayers;
+    }
+
+    public ModelConfig setHiddenLayers(int hiddenLayers) {
+        if (hiddenLayers <= 0) {
+            throw new IllegalArgumentException("Hidden layers must be positive: " + hiddenLayers);
+        }
+        this.hiddenLayers = hiddenLayers;
+        return this;
+    }
+
+    public int getHiddenNodes() {
+        return hiddenNodes;
+    }
+
+    public ModelConfig setHiddenNodes(int hiddenNodes) {
+        if (hiddenNodes <= 0) {
+            throw new IllegalArgumentException("Hidden nodes must be positive: " + hiddenNodes);
+        }
+        this.hiddenNodes = hiddenNodes;
+        return this;
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public ModelConfig setLearningRate(double learningRate) {
+        if (learningRate <= 0) {
+            throw new IllegalArgumentException("Learning rate must be positive: " + learningRate);
+        }
+        this.learningRate = learningRate;
+        return this;
+    }
+
+    public double getL2() {
+        return l2;
+    }
+
+    public ModelConfig setL2(double l2) {
+        if (l2 < 0) {
+            throw new IllegalArgumentException("L2 must not be negative: " + l2);
+        }
+        this.l2 = l2;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Seed of the weight initialization
+    public ModelConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // Layer sizes from input to output, e.g. {12, 20, 20, 1}
+    public int[] layerSizes(int numInputs) {
+        int[] sizes = new int[hiddenLayers + 2];
+        sizes[0] = numInputs;
+        for (int i = 1; i <= hiddenLayers; i++) {
+            sizes[i] = hiddenNodes;
+        }
+        sizes[hiddenLayers + 1] = 1;
+        return sizes;
+    }
+
+    // Create and initialize a network with this configuration (no listeners attached)
+    public MultiLayerNetwork createNetwork(int numInputs) {
+        NeuralNetConfiguration.ListBuilder layers = new NeuralNetConfiguration.Builder()
+                .seed(seed)
+                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
+                .updater(new Adam(learningRate))
+                .weightInit(WeightInit.XAVIER)
+                .l2(l2)
+                .list();
+
+        int nIn = numInputs;
+        for (int i = 0; i < hiddenLayers; i++) {
+            layers.layer(i, new DenseLayer.Builder()
+                    .nIn(nIn)
+                    .nOut(hiddenNodes)
+                    .activation(Activation.RELU)
+                    .build());
+            nIn = hiddenNodes;
+        }
+        MultiLayerConfiguration conf = layers
+                .layer(hiddenLayers, new OutputLayer.Builder(LossFunctions.LossFunction.MSE)
+                        .nIn(nIn)
+                        .nOut(1)
+                        .activation(Activation.IDENTITY)
+                        .build())
+                .build();
+
+        MultiLayerNetwork network = new MultiLayerNetwork(conf);
+        network.init();
+        return network;
+    }
+
+    public ModelConfig copy() {
+        return new ModelConfig()
+                .setHiddenLayers(hiddenLayers)
+                .setHiddenNodes(hiddenNodes)
+                .setLearningRate(learningRate)
+                .setL2(l2)
+                .setSeed(seed);
+    }
+
+    @Override
+    public String toString() {
+        return "ModelConfig{" +
+                "hiddenLayers=" + hiddenLayers +
+                ", hiddenNodes=" + hiddenNodes +
+                ", learningRate=" + learningRate +
+                ", l2=" + l2 +
+                ", seed=" + seed +
+                '}';
+    }
+}
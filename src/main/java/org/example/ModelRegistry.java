@@ -0,0 +1,234 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Versioned models behind one atomic reference. Readers take the current version without
+// locking and finish on it even if a newer one is published meanwhile. A retrained model is
+// only promoted when its evaluation passes the thresholds and it is not worse than the
+// serving version on the same test rows; the versions it replaced are kept for rollback.
+public class ModelRegistry {
+
+    // Outcome of a promotion attempt
+    public static class Promotion {
+        private final ModelVersion version;
+        private final String reason;
+
+        Promotion(ModelVersion version, String reason) {
+            this.version = version;
+            this.reason = reason;
+        }
+
+        public boolean isAccepted() {
+            return version != null;
+        }
+
+        // The published version, null when the candidate was rejected
+        public ModelVersion getVersion() {
+            return version;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    private static final LatencyHistogram PREDICT_LATENCY = Metrics.histogram(Metrics.PREDICT_PRICE);
+    private static final LatencyHistogram BATCH_LATENCY = Metrics.histogram(Metrics.PREDICT_BATCH);
+    private static final Metrics.Counter BATCH_ROWS = Metrics.counter(Metrics.BATCH_ROWS);
+
+    private final AtomicReference<ModelVersion> current = new AtomicReference<>();
+    // Replaced versions, most recent first; writers synchronize on the registry
+    private final Deque<ModelVersion> previous = new ArrayDeque<>();
+    private int nextVersion = 1;
+
+    // Test R² a candidate must reach (0 = better than predicting the mean price)
+    private double minR2 = 0.0;
+    // Allowed relative increase of the test RMSE (in price units) over the current version
+    private double maxRmseIncrease = 0.1;
+    private int historySize = 3;
+    private int replicas = Runtime.getRuntime().availableProcessors();
+    private InferencePrecision precision = InferencePrecision.FLOAT32;
+
+    public ModelVersion current() {
+        return current.get();
+    }
+
+    public double predictPrice(double[] features) {
+        long start = System.nanoTime();
+        double price = require().predictPrice(features);
+        PREDICT_LATENCY.recordSince(start);
+        return price;
+    }
+
+    public double[] predictBatch(double[][] features) {
+        long start = System.nanoTime();
+        double[] prices = require().predictBatch(features);
+        BATCH_LATENCY.recordSince(start);
+        BATCH_ROWS.add(features.length);
+        return prices;
+    }
+
+    private ModelVersion require() {
+        ModelVersion version = current.get();
+        if (version == null) {
+            throw new IllegalStateException("No trained model");
+        }
+        return version;
+    }
+
+    // Publish without evaluation, e.g. a bundle loaded from disk (with the metrics it was saved with)
+    public synchronized ModelVersion publish(ModelBundle bundle, Map<String, Double> metrics) {
+        // The registry keeps its own copy, later training of the source network cannot leak in.
+        // The metrics go into the bundle so that they are saved and restored with it.
+        ModelBundle frozen = new ModelBundle(bundle.getNetwork().clone(), bundle.getModelConfig(), bundle.getScaler(),
+                bundle.getDatasetFingerprint(), bundle.getDatasetRows(), metrics);
+        ModelVersion version = new ModelVersion(nextVersion++, frozen,
+                new InferencePool(frozen.getNetwork(), frozen.getScaler(), replicas, precision),
+                metrics, System.currentTimeMillis());
+
+        ModelVersion replaced = current.getAndSet(version);
+        if (replaced != null) {
+            previous.addFirst(replaced);
+            while (previous.size() > historySize) {
+                previous.removeLast();
+            }
+        }
+        System.out.println("Model " + version + " published.");
+        return version;
+    }
+
+    // Publish the candidate only if its test metrics (evaluateModel) pass the thresholds.
+    // The RMSE guard re-evaluates the serving version and the candidate on the same raw test
+    // rows, each through its own scaling, so reported metrics of different runs (or of a
+    // version loaded from disk) are never compared with each other.
+    public synchronized Promotion promote(ModelBundle candidate, Map<String, Double> metrics,
+                                          double[][] testFeatures, double[] testPrices) {
+        if (testFeatures.length != testPrices.length) {
+            throw new IllegalArgumentException(testFeatures.length + " test rows but " + testPrices.length + " prices");
+        }
+        String rejection = check(candidate, metrics, testFeatures, testPrices);
+        if (rejection != null) {
+            System.out.println("Model rejected: " + rejection);
+            return new Promotion(null, rejection);
+        }
+        ModelVersion version = publish(candidate, metrics);
+        return new Promotion(version, "Published as v" + version.getVersion());
+    }
+
+    private String check(ModelBundle candidate, Map<String, Double> metrics,
+                         double[][] testFeatures, double[] testPrices) {
+        Double r2 = metrics.get("r2");
+        Double rmse = metrics.get("rmse");
+        if (r2 == null || rmse == null || r2.isNaN() || rmse.isNaN()) {
+            return "missing test metrics";
+        }
+        if (r2 < minR2) {
+            return String.format("R² %.4f below %.4f", r2, minR2);
+        }
+        ModelVersion version = current.get();
+        if (version == null) {
+            return null;
+        }
+        if (testFeatures.length == 0) {
+            return "no test rows to compare with v" + version.getVersion();
+        }
+        double currentRmse = priceRmse(version.predictBatch(testFeatures), testPrices);
+        double candidateRmse = priceRmse(candidate.predictBatch(testFeatures), testPrices);
+        if (Double.isNaN(candidateRmse) || candidateRmse > currentRmse * (1 + maxRmseIncrease)) {
+            return String.format("RMSE %.2f more than %.0f%% above v%d (%.2f) on %d test rows",
+                    candidateRmse, maxRmseIncrease * 100, version.getVersion(), currentRmse, testPrices.length);
+        }
+        return null;
+    }
+
+    private static double priceRmse(double[] predictions, double[] prices) {
+        double sum = 0.0;
+        for (int i = 0; i < prices.length; i++) {
+            double error = predictions[i] - prices[i];
+            sum += error * error;
+        }
+        return Math.sqrt(sum / prices.length);
+    }
+
+    // Back to the version the current one replaced
+    public synchronized ModelVersion rollback() {
+        ModelVersion version = previous.pollFirst();
+        if (version == null) {
+            throw new IllegalStateException("No previous model version");
+        }
+        if (version.getPool().getPrecision() != precision) {
+            version = version.withPrecision(precision);
+        }
+        ModelVersion replaced = current.getAndSet(version);
+        System.out.println("Rolled back from " + replaced + " to " + version + ".");
+        return version;
+    }
+
+    public synchronized List<ModelVersion> getHistory() {
+        return Collections.unmodifiableList(new ArrayList<>(previous));
+    }
+
+    public double getMinR2() {
+        return minR2;
+    }
+
+    public synchronized ModelRegistry setMinR2(double minR2) {
+        this.minR2 = minR2;
+        return this;
+    }
+
+    public double getMaxRmseIncrease() {
+        return maxRmseIncrease;
+    }
+
+    public synchronized ModelRegistry setMaxRmseIncrease(double maxRmseIncrease) {
+        if (maxRmseIncrease < 0) {
+            throw new IllegalArgumentException("Max RMSE increase must not be negative: " + maxRmseIncrease);
+        }
+        this.maxRmseIncrease = maxRmseIncrease;
+        return this;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public synchronized ModelRegistry setHistorySize(int historySize) {
+        if (historySize < 0) {
+            throw new IllegalArgumentException("History size must not be negative: " + historySize);
+        }
+        this.historySize = historySize;
+        while (previous.size() > historySize) {
+            previous.removeLast();
+        }
+        return this;
+    }
+
+    public synchronized ModelRegistry setReplicas(int replicas) {
+        if (replicas <= 0) {
+            throw new IllegalArgumentException("Replica count must be positive: " + replicas);
+        }
+        this.replicas = replicas;
+        return this;
+    }
+
+    public InferencePrecision getInferencePrecision() {
+        return precision;
+    }
+
+    // Also switches the version being served
+    public synchronized ModelRegistry setInferencePrecision(InferencePrecision precision) {
+        this.precision = precision;
+        ModelVersion version = current.get();
+        if (version != null && version.getPool().getPrecision() != precision) {
+            current.set(version.withPrecision(precision));
+        }
+        return this;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// One published model: an immutable bundle, the pool serving it and the evaluation
+// metrics it was accepted with. A caller that got hold of a version can keep predicting
+// on it after a newer one has been published.
+public class ModelVersion {
+    private final int version;
+    private final ModelBundle bundle;
+    private final InferencePool pool;
+    private final Map<String, Double> metrics;
+    private final long publishedAt;
+
+    ModelVersion(int version, ModelBundle bundle, InferencePool pool, Map<String, Double> metrics, long publishedAt) {
+        this.version = version;
+        this.bundle = bundle;
+        this.pool = pool;
+        this.metrics = Collections.unmodifiableMap(new HashMap<>(metrics));
+        this.publishedAt = publishedAt;
+    }
+
+    // Same model served with another engine precision
+    ModelVersion withPrecision(InferencePrecision precision) {
+        return new ModelVersion(version, bundle, pool.withPrecision(precision), metrics, publishedAt);
+    }
+
+    public double predictPrice(double[] features) {
+        return pool.predictPrice(features);
+    }
+
+    public double[] predictBatch(double[][] features) {
+        return pool.predictBatch(features);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public ModelBundle getBundle() {
+        return bundle;
+    }
+
+    public InferencePool getPool() {
+        return pool;
+    }
+
+    // Empty for models published without evaluation, e.g. bundles saved before metrics were stored
+    public Map<String, Double> getMetrics() {
+        return metrics;
+    }
+
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "v" + version + (metrics.containsKey("r2") ? String.format(" (R² %.4f, RMSE %.5f)",
+                metrics.get("r2"), metrics.get("rmse")) : "");
+    }
+}
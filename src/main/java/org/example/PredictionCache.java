@@ -0,0 +1,309 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded LRU cache in front of ModelRegistry.predictPrice for repetitive traffic.
+// The raw feature vector is packed into one long: the area as a multiple of areaBucket
+// (32 bits), counts in 5 bits, flags in 1 bit and the furnishing status in 2 bits.
+// A vector that does not fit (fractional counts, out of range values) bypasses the cache,
+// and so does a fractional area with areaBucket = 1. With areaBucket > 1 the price is
+// predicted for the area rounded to the bucket.
+// Entries live in lock-striped segments of primitive arrays (open addressing plus an LRU
+// list), so lookups do not allocate. A segment drops its entries as soon as it is used with
+// another model version than the one it was filled with.
+public class PredictionCache {
+    // Bits per raw feature, in getRawFeatures() order
+    private static final int[] WIDTHS = {32, 5, 5, 5, 1, 1, 1, 1, 1, 5, 1, 2};
+    private static final LatencyHistogram PREDICT_LATENCY = Metrics.histogram(Metrics.PREDICT_PRICE);
+
+    private final ModelRegistry registry;
+    private final double areaBucket;
+    private final Segment[] segments;
+    private final int capacity;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    public PredictionCache(ModelRegistry registry, int capacity, double areaBucket, int stripes) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (!(areaBucket > 0)) {
+            throw new IllegalArgumentException("Area bucket must be positive: " + areaBucket);
+        }
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes must be a power of two: " + stripes);
+        }
+        this.registry = registry;
+        this.areaBucket = areaBucket;
+        this.segments = new Segment[stripes];
+        int perSegment = Math.max(1, (capacity + stripes - 1) / stripes);
+        for (int i = 0; i < stripes; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.capacity = perSegment * stripes;
+    }
+
+    public PredictionCache(ModelRegistry registry, int capacity, double areaBucket) {
+        this(registry, capacity, areaBucket, 16);
+    }
+
+    public double predictPrice(double[] features) {
+        long start = System.nanoTime();
+        double price = lookup(features);
+        PREDICT_LATENCY.recordSince(start);
+        return price;
+    }
+
+    private double lookup(double[] features) {
+        // One version for the lookup and a possible miss
+        ModelVersion version = registry.current();
+        if (version == null) {
+            throw new IllegalStateException("No trained model");
+        }
+        long key = encode(features);
+        if (key < 0) {
+            bypassed.increment();
+            return version.predictPrice(features);
+        }
+
+        long hash = mix(key);
+        Segment segment = segments[(int) (hash >>> 32) & (segments.length - 1)];
+        synchronized (segment) {
+            if (segment.owner != version) {
+                if (segment.size > 0) {
+                    invalidations.add(segment.size);
+                }
+                segment.clear();
+                segment.owner = version;
+            }
+            int slot = segment.find(key, (int) hash);
+            if (slot >= 0) {
+                hits.increment();
+                segment.moveToFront(slot);
+                return segment.values[slot];
+            }
+            // The engine takes about a microsecond, cheaper than computing twice on a race
+            misses.increment();
+            double price = version.predictPrice(decode(key));
+            if (segment.put(key, (int) hash, price)) {
+                evictions.increment();
+            }
+            return price;
+        }
+    }
+
+    // Packed key of the canonical vector, -1 when the vector cannot be encoded
+    long encode(double[] features) {
+        long key = 0;
+        for (int i = 0; i < WIDTHS.length; i++) {
+            // Without bucketing the exact area is the key, a fractional one cannot be encoded
+            double value = i == 0 && areaBucket != 1 ? Math.rint(features[i] / areaBucket) : features[i];
+            long bits = (long) value;
+            if (bits != value || bits < 0 || bits >= 1L << WIDTHS[i]) {
+                return -1;
+            }
+            key = (key << WIDTHS[i]) | bits;
+        }
+        return key;
+    }
+
+    double[] decode(long key) {
+        double[] features = new double[WIDTHS.length];
+        for (int i = WIDTHS.length - 1; i >= 0; i--) {
+            features[i] = key & ((1L << WIDTHS[i]) - 1);
+            key >>>= WIDTHS[i];
+        }
+        features[0] *= areaBucket;
+        return features;
+    }
+
+    static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+                segment.owner = null;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getAreaBucket() {
+        return areaBucket;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Entries dropped because the model version changed
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    // Vectors that could not be encoded and went straight to the model
+    public long getBypassed() {
+        return bypassed.sum();
+    }
+
+    public double getHitRate() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0.0 : (double) getHits() / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PredictionCache{size=%d/%d, hits=%d, misses=%d, hitRate=%.3f, evictions=%d, " +
+                        "invalidations=%d, bypassed=%d}", size(), capacity, getHits(), getMisses(), getHitRate(),
+                getEvictions(), getInvalidations(), getBypassed());
+    }
+
+    // Fixed-capacity LRU map from packed keys to prices. Slots hold the entries and form a
+    // doubly linked list (most recent first); the table maps hashes to slot + 1 with linear
+    // probing and backward-shift deletion. Guarded by the segment's monitor.
+    static final class Segment {
+        final long[] keys;
+        final double[] values;
+        final int[] prev;
+        final int[] next;
+        final int[] table;
+        final int mask;
+        int size;
+        int head = -1;
+        int tail = -1;
+        ModelVersion owner;
+
+        Segment(int capacity) {
+            keys = new long[capacity];
+            values = new double[capacity];
+            prev = new int[capacity];
+            next = new int[capacity];
+            table = new int[Integer.highestOneBit(capacity) * 4];
+            mask = table.length - 1;
+        }
+
+        int find(long key, int hash) {
+            for (int i = hash & mask; table[i] != 0; i = (i + 1) & mask) {
+                if (keys[table[i] - 1] == key) {
+                    return table[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        // Returns true when the least recently used entry had to make room
+        boolean put(long key, int hash, double value) {
+            boolean evicted = false;
+            int slot;
+            if (size < keys.length) {
+                slot = size++;
+            } else {
+                slot = tail;
+                remove(keys[slot], (int) mix(keys[slot]));
+                unlink(slot);
+                evicted = true;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            int i = hash & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = slot + 1;
+            linkFirst(slot);
+            return evicted;
+        }
+
+        private void remove(long key, int hash) {
+            int i = hash & mask;
+            while (keys[table[i] - 1] != key) {
+                i = (i + 1) & mask;
+            }
+            // Move later entries of the probe run back into the gap
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (table[j] == 0) {
+                    break;
+                }
+                int home = (int) mix(keys[table[j] - 1]) & mask;
+                boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stays) {
+                    table[i] = table[j];
+                    i = j;
+                }
+            }
+            table[i] = 0;
+        }
+
+        void moveToFront(int slot) {
+            if (slot != head) {
+                unlink(slot);
+                linkFirst(slot);
+            }
+        }
+
+        private void unlink(int slot) {
+            if (prev[slot] >= 0) {
+                next[prev[slot]] = next[slot];
+            } else {
+                head = next[slot];
+            }
+            if (next[slot] >= 0) {
+                prev[next[slot]] = prev[slot];
+            } else {
+                tail = prev[slot];
+            }
+        }
+
+        private void linkFirst(int slot) {
+            prev[slot] = -1;
+            next[slot] = head;
+            if (head >= 0) {
+                prev[head] = slot;
+            }
+            head = slot;
+            if (tail < 0) {
+                tail = slot;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(table, 0);
+            size = 0;
+            head = -1;
+            tail = -1;
+        }
+    }
+}
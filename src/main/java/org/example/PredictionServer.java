@@ -0,0 +1,383 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Headless prediction service on the JDK HTTP server.
+//   POST /predict  rows of 12 raw features, as JSON ({"features":[...]}, {"rows":[[...],...]}
+//                  or [[...],...]) or as CSV lines with Content-Type text/csv
+//   GET  /health   model version and batching statistics
+//   GET  /metrics  latency histograms and counters as a text table (see Metrics)
+// Requests from concurrent clients are coalesced by a MicroBatcher into one forward pass.
+// Every batch runs on the registry's current version, so publishing or rolling back a model
+// takes effect without a restart and batches in flight finish on the version they started on.
+public class PredictionServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_BATCH_ROWS = 256;
+    public static final long DEFAULT_MAX_DELAY_MICROS = 1000;
+    // Larger request bodies are refused with 413
+    public static final int MAX_BODY_BYTES = 8 * 1024 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ModelRegistry registry;
+    private final MicroBatcher batcher;
+
+    public PredictionServer(ModelBundle bundle, int port, int maxBatchRows, long maxDelayMicros) throws IOException {
+        this(registryOf(bundle), port, maxBatchRows, maxDelayMicros);
+    }
+
+    public PredictionServer(ModelRegistry registry, int port, int maxBatchRows, long maxDelayMicros) throws IOException {
+        this.registry = registry;
+        this.batcher = new MicroBatcher(registry::predictBatch, maxBatchRows, maxDelayMicros);
+        this.executor = Executors.newFixedThreadPool(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/predict", this::handlePredict);
+        server.createContext("/health", this::handleHealth);
+        server.createContext("/metrics", exchange -> send(exchange, 200, "text/plain", Metrics.report()));
+    }
+
+    private static ModelRegistry registryOf(ModelBundle bundle) {
+        ModelRegistry registry = new ModelRegistry();
+        registry.publish(bundle, bundle.getMetrics());
+        return registry;
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Prediction server listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public ModelRegistry getRegistry() {
+        return registry;
+    }
+
+    public MicroBatcher getBatcher() {
+        return batcher;
+    }
+
+    private void handlePredict(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "text/plain", "Use POST");
+                return;
+            }
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            boolean csv = contentType != null && contentType.contains("csv");
+            String body = readBody(exchange.getRequestBody(), MAX_BODY_BYTES);
+            if (body == null) {
+                send(exchange, 413, "text/plain", "Request body larger than " + MAX_BODY_BYTES + " bytes");
+                return;
+            }
+
+            double[][] rows;
+            try {
+                rows = csv ? parseCsv(body) : parseJson(body);
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, "text/plain", e.getMessage());
+                return;
+            }
+
+            double[] prices = batcher.predict(rows);
+            StringBuilder response = new StringBuilder();
+            if (csv) {
+                response.append("predicted_price\n");
+                for (double price : prices) {
+                    response.append(price).append('\n');
+                }
+                send(exchange, 200, "text/csv", response.toString());
+            } else {
+                response.append("{\"prices\":[");
+                for (int i = 0; i < prices.length; i++) {
+                    response.append(i > 0 ? "," : "").append(prices[i]);
+                }
+                response.append("]}");
+                send(exchange, 200, "application/json", response.toString());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "text/plain", "Interrupted");
+        } catch (RuntimeException e) {
+            send(exchange, 500, "text/plain", "Prediction failed: " + e.getMessage());
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        ModelVersion version = registry.current();
+        send(exchange, 200, "application/json", "{\"status\":\"ok\",\"version\":" +
+                (version != null ? version.getVersion() : 0) + ",\"batches\":" + batcher.getBatches() +
+                ",\"rows\":" + batcher.getRowsPredicted() + "}");
+    }
+
+    // The body as UTF-8, or null once it exceeds maxBytes
+    private static String readBody(InputStream in, int maxBytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maxBytes) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // One row per line, a non-numeric first line is taken as a header
+    static double[][] parseCsv(String body) {
+        List<double[]> rows = new ArrayList<>();
+        String[] lines = body.split("\r?\n");
+        for (int l = 0; l < lines.length; l++) {
+            String line = lines[l].trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] values = line.split(",");
+            if (values.length != HousingDataset.NUM_FEATURES) {
+                throw new IllegalArgumentException("Line " + (l + 1) + ": expected " + HousingDataset.NUM_FEATURES +
+                        " values, found " + values.length);
+            }
+            double[] row = new double[values.length];
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    row[i] = Double.parseDouble(values[i].trim());
+                }
+            } catch (NumberFormatException e) {
+                if (l == 0) {
+                    continue;
+                }
+                throw new IllegalArgumentException("Line " + (l + 1) + ": " + e.getMessage());
+            }
+            rows.add(row);
+        }
+        return toMatrix(rows);
+    }
+
+    // One of {"features":[12 numbers]}, {"rows":[[12 numbers],...]} or [[12 numbers],...];
+    // unknown keys, non-numeric values and rows of another length are rejected
+    static double[][] parseJson(String body) {
+        return toMatrix(new JsonRows(body).document());
+    }
+
+    private static double[][] toMatrix(List<double[]> rows) {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("No feature rows in request");
+        }
+        return rows.toArray(new double[0][]);
+    }
+
+    // Recursive descent over the accepted request shapes only
+    private static final class JsonRows {
+        private final String text;
+        private int pos;
+
+        JsonRows(String text) {
+            this.text = text;
+        }
+
+        List<double[]> document() {
+            List<double[]> rows;
+            skipWhitespace();
+            if (peek() == '[') {
+                rows = rowArray();
+            } else if (peek() == '{') {
+                rows = object();
+            } else {
+                throw error("expected an object or an array of rows");
+            }
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("unexpected content after the document");
+            }
+            return rows;
+        }
+
+        private List<double[]> object() {
+            expect('{');
+            List<double[]> rows = null;
+            if (!consume('}')) {
+                do {
+                    String key = string();
+                    expect(':');
+                    if (rows != null) {
+                        throw error("expected a single \"features\" or \"rows\" key");
+                    }
+                    if (key.equals("features")) {
+                        rows = new ArrayList<>();
+                        rows.add(row());
+                    } else if (key.equals("rows")) {
+                        rows = rowArray();
+                    } else {
+                        throw error("unknown key \"" + key + "\"");
+                    }
+                } while (consume(','));
+                expect('}');
+            }
+            if (rows == null) {
+                throw error("expected a \"features\" or \"rows\" key");
+            }
+            return rows;
+        }
+
+        private List<double[]> rowArray() {
+            expect('[');
+            List<double[]> rows = new ArrayList<>();
+            if (!consume(']')) {
+                do {
+                    rows.add(row());
+                } while (consume(','));
+                expect(']');
+            }
+            return rows;
+        }
+
+        private double[] row() {
+            expect('[');
+            double[] row = new double[HousingDataset.NUM_FEATURES];
+            int column = 0;
+            if (!consume(']')) {
+                do {
+                    double value = number();
+                    if (column == row.length) {
+                        throw error("row has more than " + row.length + " features");
+                    }
+                    row[column++] = value;
+                } while (consume(','));
+                expect(']');
+            }
+            if (column != row.length) {
+                throw error("row has " + column + " features, expected " + row.length);
+            }
+            return row;
+        }
+
+        private double number() {
+            skipWhitespace();
+            int start = pos;
+            if (peek() == '-') {
+                pos++;
+            }
+            int digits = skipDigits();
+            if (peek() == '.') {
+                pos++;
+                if (skipDigits() == 0) {
+                    digits = 0;
+                }
+            }
+            if (digits > 0 && (peek() == 'e' || peek() == 'E')) {
+                pos++;
+                if (peek() == '+' || peek() == '-') {
+                    pos++;
+                }
+                if (skipDigits() == 0) {
+                    digits = 0;
+                }
+            }
+            if (digits == 0) {
+                pos = start;
+                throw error("expected a number");
+            }
+            double value = Double.parseDouble(text.substring(start, pos));
+            if (Double.isInfinite(value)) {
+                pos = start;
+                throw error("number out of range");
+            }
+            return value;
+        }
+
+        private int skipDigits() {
+            int start = pos;
+            while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+                pos++;
+            }
+            return pos - start;
+        }
+
+        private String string() {
+            skipWhitespace();
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length() && text.charAt(pos) != '"') {
+                char c = text.charAt(pos++);
+                if (c == '\\' && pos < text.length()) {
+                    char escaped = text.charAt(pos++);
+                    if (escaped == 'u' && pos + 4 <= text.length()) {
+                        try {
+                            c = (char) Integer.parseInt(text.substring(pos, pos + 4), 16);
+                        } catch (NumberFormatException e) {
+                            throw error("invalid escape");
+                        }
+                        pos += 4;
+                    } else {
+                        c = escaped == 'n' ? '\n' : escaped == 't' ? '\t' : escaped == 'r' ? '\r' : escaped;
+                    }
+                }
+                value.append(c);
+            }
+            expect('"');
+            return value.toString();
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        // Skips whitespace, then consumes c if it is next
+        private boolean consume(char c) {
+            skipWhitespace();
+            if (peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at offset " + pos + ": " + message);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        batcher.close();
+        executor.shutdown();
+    }
+}
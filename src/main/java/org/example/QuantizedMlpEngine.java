@@ -0,0 +1,118 @@
+package org.example;
+
+// MlpEngine with int8 weights: every layer keeps its weights as bytes plus one scale
+// (symmetric quantization, w ~ q * scale with q in [-127, 127]). Activations and biases
+// stay float, the scale is applied once per output node after the dot product.
+public class QuantizedMlpEngine implements InferenceEngine {
+    private final int[] layerSizes;
+    private final byte[][] weights;
+    private final float[] weightScales;
+    private final float[][] biases;
+    private final boolean[] relu;
+    private final float[] inputScale;
+    private final float[] inputShift;
+    private final double outputScale;
+    private final double outputShift;
+    private final int maxWidth;
+
+    private QuantizedMlpEngine(MlpEngine source, byte[][] weights, float[] weightScales) {
+        this.layerSizes = source.getLayerSizes();
+        this.weights = weights;
+        this.weightScales = weightScales;
+        int layers = layerSizes.length - 1;
+        this.biases = new float[layers][];
+        this.relu = new boolean[layers];
+        for (int l = 0; l < layers; l++) {
+            biases[l] = source.getBiases(l).clone();
+            relu[l] = source.isRelu(l);
+        }
+        int numInputs = layerSizes[0];
+        this.inputScale = new float[numInputs];
+        this.inputShift = new float[numInputs];
+        for (int i = 0; i < numInputs; i++) {
+            inputScale[i] = source.getInputScale(i);
+            inputShift[i] = source.getInputShift(i);
+        }
+        this.outputScale = source.getOutputScale();
+        this.outputShift = source.getOutputShift();
+
+        int width = 0;
+        for (int size : layerSizes) {
+            width = Math.max(width, size);
+        }
+        this.maxWidth = width;
+    }
+
+    public static QuantizedMlpEngine quantize(MlpEngine engine) {
+        int layers = engine.getLayerSizes().length - 1;
+        byte[][] weights = new byte[layers][];
+        float[] scales = new float[layers];
+        for (int l = 0; l < layers; l++) {
+            float[] w = engine.getWeights(l);
+            float maxAbs = 0f;
+            for (float value : w) {
+                maxAbs = Math.max(maxAbs, Math.abs(value));
+            }
+            scales[l] = maxAbs == 0f ? 1f : maxAbs / 127f;
+
+            weights[l] = new byte[w.length];
+            for (int i = 0; i < w.length; i++) {
+                weights[l][i] = (byte) Math.round(w[i] / scales[l]);
+            }
+        }
+        return new QuantizedMlpEngine(engine, weights, scales);
+    }
+
+    public float getWeightScale(int layer) {
+        return weightScales[layer];
+    }
+
+    @Override
+    public float[] newScratch() {
+        return new float[2 * maxWidth];
+    }
+
+    @Override
+    public double predict(double[] features, float[] scratch) {
+        int numInputs = layerSizes[0];
+        for (int i = 0; i < numInputs; i++) {
+            scratch[i] = (float) (features[i] * inputScale[i] + inputShift[i]);
+        }
+        return forward(scratch) * outputScale + outputShift;
+    }
+
+    @Override
+    public float forward(float[] scratch) {
+        int in = 0;
+        int out = maxWidth;
+        for (int l = 0; l < weights.length; l++) {
+            int nIn = layerSizes[l];
+            int nOut = layerSizes[l + 1];
+            byte[] w = weights[l];
+            float[] b = biases[l];
+            float scale = weightScales[l];
+            for (int o = 0; o < nOut; o++) {
+                float sum = 0f;
+                int row = o * nIn;
+                for (int i = 0; i < nIn; i++) {
+                    sum += w[row + i] * scratch[in + i];
+                }
+                sum = sum * scale + b[o];
+                scratch[out + o] = relu[l] && sum < 0 ? 0f : sum;
+            }
+            int tmp = in;
+            in = out;
+            out = tmp;
+        }
+        return scratch[in];
+    }
+
+    @Override
+    public long parameterBytes() {
+        long bytes = 4L * weightScales.length;
+        for (int l = 0; l < weights.length; l++) {
+            bytes += weights[l].length + 4L * biases[l].length;
+        }
+        return bytes;
+    }
+}
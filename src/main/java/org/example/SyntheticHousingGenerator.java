@@ -0,0 +1,457 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Generates Housing CSV files of any size that follow the bundled data.
+// Every column keeps its empirical distribution (price and area are interpolated between
+// observed values, the other columns only take observed values) and the columns are tied
+// together by a Gaussian copula: rows are drawn as correlated normals mapped back through
+// the marginals. The copula starts from the correlation of the rank-based normal scores and
+// is then calibrated by simulation, since discrete columns would otherwise weaken every
+// correlation they take part in.
+// Chunks of rows are generated in parallel into byte buffers and written in order, with at
+// most two chunks per thread in memory. A given seed gives the same file for any number of
+// threads.
+public class SyntheticHousingGenerator {
+    public static final int DEFAULT_CHUNK_ROWS = 65_536;
+
+    private static final String HEADER = "price,area,bedrooms,bathrooms,stories,mainroad,guestroom,basement," +
+            "hotwaterheating,airconditioning,parking,prefarea,furnishingstatus\n";
+    private static final byte[] YES = "yes".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NO = "no".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] FURNISHING = {
+            "furnished".getBytes(StandardCharsets.US_ASCII),
+            "semi-furnished".getBytes(StandardCharsets.US_ASCII),
+            "unfurnished".getBytes(StandardCharsets.US_ASCII)
+    };
+    private static final int NUM_COLUMNS = HousingDataset.NUM_COLUMNS;
+    // CSV columns (price first) with interpolated marginals
+    private static final boolean[] CONTINUOUS = {
+            true, true, false, false, false, false, false, false, false, false, false, false, false
+    };
+    // CSV columns written as yes/no
+    private static final boolean[] FLAG = {
+            false, false, false, false, false, true, true, true, true, true, false, true, false
+    };
+
+    // Simulation rounds and rows per round used to calibrate the copula
+    private static final int CALIBRATION_ROUNDS = 10;
+    private static final int CALIBRATION_ROWS = 20_000;
+    private static final long CALIBRATION_SEED = 1;
+    private static final double[] SHRINKAGE = {0, 1e-6, 1e-4, 1e-2, 0.1, 0.3, 1};
+
+    private final double[][] sorted;
+    private final double[][] copula;
+    private double[][] cholesky;
+    // Longest line the marginals can produce, sizes the chunk buffers
+    private final int maxLineBytes;
+    private int chunkRows = DEFAULT_CHUNK_ROWS;
+
+    private SyntheticHousingGenerator(double[][] columns) {
+        int n = columns[0].length;
+        if (n < 2) {
+            throw new IllegalArgumentException("At least 2 rows are needed to fit the generator");
+        }
+        sorted = new double[NUM_COLUMNS][];
+        double[][] scores = new double[NUM_COLUMNS][];
+        for (int c = 0; c < NUM_COLUMNS; c++) {
+            sorted[c] = columns[c].clone();
+            Arrays.sort(sorted[c]);
+            scores[c] = normalScores(columns[c], sorted[c]);
+        }
+
+        CoMoments moments = new CoMoments(NUM_COLUMNS);
+        double[] row = new double[NUM_COLUMNS];
+        for (int i = 0; i < n; i++) {
+            for (int c = 0; c < NUM_COLUMNS; c++) {
+                row[c] = scores[c][i];
+            }
+            moments.add(row);
+        }
+        copula = moments.correlationMatrix();
+        for (int c = 0; c < NUM_COLUMNS; c++) {
+            // A constant column has no defined correlation, keep it independent
+            if (!(moments.getVariance(c) > 0)) {
+                for (int k = 0; k < NUM_COLUMNS; k++) {
+                    copula[c][k] = c == k ? 1.0 : 0.0;
+                    copula[k][c] = c == k ? 1.0 : 0.0;
+                }
+            }
+        }
+        cholesky = cholesky(copula);
+        calibrate(pearson(columns));
+
+        int lineBytes = NUM_COLUMNS;
+        for (int c = 0; c < NUM_COLUMNS; c++) {
+            if (FLAG[c]) {
+                lineBytes += YES.length;
+            } else if (c == NUM_COLUMNS - 1) {
+                int widest = 0;
+                for (byte[] furnishing : FURNISHING) {
+                    widest = Math.max(widest, furnishing.length);
+                }
+                lineBytes += widest;
+            } else {
+                lineBytes += Math.max(Long.toString((long) sorted[c][0]).length(),
+                        Long.toString((long) sorted[c][n - 1]).length());
+            }
+        }
+        maxLineBytes = lineBytes;
+    }
+
+    private static double[][] pearson(double[][] columns) {
+        CoMoments moments = new CoMoments(NUM_COLUMNS);
+        double[] row = new double[NUM_COLUMNS];
+        for (int i = 0; i < columns[0].length; i++) {
+            for (int c = 0; c < NUM_COLUMNS; c++) {
+                row[c] = columns[c][i];
+            }
+            moments.add(row);
+        }
+        return moments.correlationMatrix();
+    }
+
+    // Move the copula until the Pearson correlations of sampled rows match the data. The
+    // same random stream is replayed every round, so the steps are not drowned in noise.
+    private void calibrate(double[][] target) {
+        double[] row = new double[NUM_COLUMNS];
+        double[] normals = new double[NUM_COLUMNS];
+        for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+            SplittableRandom random = new SplittableRandom(CALIBRATION_SEED);
+            CoMoments moments = new CoMoments(NUM_COLUMNS);
+            for (int i = 0; i < CALIBRATION_ROWS; i++) {
+                sample(random, row, normals);
+                moments.add(row);
+            }
+            double[][] sampled = moments.correlationMatrix();
+            for (int i = 0; i < NUM_COLUMNS; i++) {
+                for (int j = 0; j < i; j++) {
+                    if (Double.isNaN(target[i][j]) || Double.isNaN(sampled[i][j])) {
+                        continue;
+                    }
+                    double value = Math.max(-0.99, Math.min(0.99, copula[i][j] + target[i][j] - sampled[i][j]));
+                    copula[i][j] = value;
+                    copula[j][i] = value;
+                }
+            }
+            cholesky = cholesky(copula);
+        }
+    }
+
+    // Learn the marginals and the copula from a Housing CSV
+    public static SyntheticHousingGenerator fit(Path csv) throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        HousingCsvParser.parse(csv, (price, features) -> {
+            double[] row = new double[NUM_COLUMNS];
+            row[0] = price;
+            System.arraycopy(features, 0, row, 1, features.length);
+            rows.add(row);
+        });
+        double[][] columns = new double[NUM_COLUMNS][rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            for (int c = 0; c < NUM_COLUMNS; c++) {
+                columns[c][i] = rows.get(i)[c];
+            }
+        }
+        return new SyntheticHousingGenerator(columns);
+    }
+
+    public SyntheticHousingGenerator setChunkRows(int chunkRows) {
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("Chunk rows must be positive: " + chunkRows);
+        }
+        if ((long) chunkRows * maxLineBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk of " + chunkRows + " rows exceeds "
+                    + Integer.MAX_VALUE + " bytes at " + maxLineBytes + " bytes per row");
+        }
+        this.chunkRows = chunkRows;
+        return this;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    // Correlation matrix of the Gaussian copula, in CSV column order
+    public double[][] getCopulaCorrelation() {
+        double[][] copy = new double[NUM_COLUMNS][];
+        for (int c = 0; c < NUM_COLUMNS; c++) {
+            copy[c] = copula[c].clone();
+        }
+        return copy;
+    }
+
+    // Mid-rank normal scores, ties share one score
+    private static double[] normalScores(double[] values, double[] sortedValues) {
+        int n = values.length;
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            int first = lowerBound(sortedValues, values[i]);
+            int last = upperBound(sortedValues, values[i]);
+            double rank = (first + last + 1) / 2.0;
+            scores[i] = inverseNormal(rank / (n + 1));
+        }
+        return scores;
+    }
+
+    private static int lowerBound(double[] sortedValues, double value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] sortedValues, double value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Lower triangular L with L * L^T = matrix. A matrix that is not positive definite is
+    // shrunk towards the identity until it is, which keeps its unit diagonal.
+    private static double[][] cholesky(double[][] matrix) {
+        int d = matrix.length;
+        for (double shrink : SHRINKAGE) {
+            double[][] l = new double[d][d];
+            boolean positive = true;
+            for (int i = 0; i < d && positive; i++) {
+                for (int j = 0; j <= i; j++) {
+                    double sum = i == j ? matrix[i][j] : (1 - shrink) * matrix[i][j];
+                    for (int k = 0; k < j; k++) {
+                        sum -= l[i][k] * l[j][k];
+                    }
+                    if (i == j) {
+                        if (sum <= 0) {
+                            positive = false;
+                            break;
+                        }
+                        l[i][i] = Math.sqrt(sum);
+                    } else {
+                        l[i][j] = sum / l[j][j];
+                    }
+                }
+            }
+            if (positive) {
+                return l;
+            }
+        }
+        throw new IllegalStateException("Copula correlation matrix is not positive definite");
+    }
+
+    // One row in CSV column order (price, then the 12 features as in getRawFeatures)
+    public void sample(SplittableRandom random, double[] row, double[] normals) {
+        for (int c = 0; c < NUM_COLUMNS; c += 2) {
+            // Box-Muller, two independent standard normals per pair of uniforms
+            double u1 = 1.0 - random.nextDouble();
+            double u2 = random.nextDouble();
+            double radius = Math.sqrt(-2.0 * Math.log(u1));
+            normals[c] = radius * Math.cos(2 * Math.PI * u2);
+            if (c + 1 < NUM_COLUMNS) {
+                normals[c + 1] = radius * Math.sin(2 * Math.PI * u2);
+            }
+        }
+        for (int c = 0; c < NUM_COLUMNS; c++) {
+            double z = 0;
+            double[] l = cholesky[c];
+            for (int k = 0; k <= c; k++) {
+                z += l[k] * normals[k];
+            }
+            row[c] = quantile(c, normal(z));
+        }
+    }
+
+    // Inverse of the empirical distribution of a column
+    private double quantile(int column, double u) {
+        double[] values = sorted[column];
+        int n = values.length;
+        if (!CONTINUOUS[column]) {
+            return values[Math.min(n - 1, (int) (u * n))];
+        }
+        double position = Math.max(0, Math.min(n - 1, u * n - 0.5));
+        int index = (int) position;
+        if (index == n - 1) {
+            return values[index];
+        }
+        double fraction = position - index;
+        return Math.round(values[index] + fraction * (values[index + 1] - values[index]));
+    }
+
+    // Write rows generated from the seed, returns the number of bytes written
+    public long write(Path output, long rows, long seed, int threads) throws IOException {
+        if (rows < 0 || threads <= 0) {
+            throw new IllegalArgumentException("Invalid generation: " + rows + " rows, " + threads + " threads");
+        }
+        long chunks = (rows + chunkRows - 1) / chunkRows;
+        SplittableRandom root = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<ByteBuffer>> window = new ArrayDeque<>();
+        long bytes = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 20)) {
+            byte[] header = HEADER.getBytes(StandardCharsets.US_ASCII);
+            out.write(header);
+            bytes += header.length;
+
+            long submitted = 0;
+            while (submitted < chunks || !window.isEmpty()) {
+                // Keep every thread busy, chunks are written back in submission order
+                while (submitted < chunks && window.size() < 2 * threads) {
+                    int chunkSize = (int) Math.min(chunkRows, rows - submitted * chunkRows);
+                    SplittableRandom random = root.split();
+                    window.add(pool.submit(() -> generateChunk(chunkSize, random)));
+                    submitted++;
+                }
+                ByteBuffer chunk = window.poll().get();
+                out.write(chunk.array(), 0, chunk.limit());
+                bytes += chunk.limit();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating " + output, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generating a chunk failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return bytes;
+    }
+
+    private ByteBuffer generateChunk(int rows, SplittableRandom random) {
+        long bufferBytes = (long) rows * maxLineBytes;
+        if (bufferBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Chunk of " + rows + " rows exceeds " + Integer.MAX_VALUE + " bytes");
+        }
+        byte[] buffer = new byte[(int) bufferBytes];
+        double[] row = new double[NUM_COLUMNS];
+        double[] normals = new double[NUM_COLUMNS];
+        int position = 0;
+        for (int r = 0; r < rows; r++) {
+            sample(random, row, normals);
+            for (int c = 0; c < NUM_COLUMNS; c++) {
+                if (c > 0) {
+                    buffer[position++] = ',';
+                }
+                if (FLAG[c]) {
+                    byte[] flag = row[c] != 0 ? YES : NO;
+                    System.arraycopy(flag, 0, buffer, position, flag.length);
+                    position += flag.length;
+                } else if (c == NUM_COLUMNS - 1) {
+                    byte[] furnishing = FURNISHING[(int) row[c]];
+                    System.arraycopy(furnishing, 0, buffer, position, furnishing.length);
+                    position += furnishing.length;
+                } else {
+                    position = appendLong(buffer, position, (long) row[c]);
+                }
+            }
+            buffer[position++] = '\n';
+        }
+        return ByteBuffer.wrap(buffer, 0, position);
+    }
+
+    private static int appendLong(byte[] buffer, int position, long value) {
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        // Digits were written in reverse
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+        return position;
+    }
+
+    // Standard normal distribution function, from erfc (absolute error below 1.2e-7)
+    static double normal(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1.0 / (1.0 + 0.5 * x);
+        double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 +
+                t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 +
+                t * (-0.82215223 + t * 0.17087277)))))))));
+        return z >= 0 ? 1.0 - 0.5 * erfc : 0.5 * erfc;
+    }
+
+    // Inverse of the standard normal distribution function (Acklam, relative error 1.2e-9)
+    static double inverseNormal(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) /
+                    ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) /
+                    ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q /
+                (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    // Usage: SyntheticHousingGenerator <output> [rows] [seed] [threads] [source csv]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: SyntheticHousingGenerator <output> [rows] [seed] [threads] [source csv]");
+            return;
+        }
+        Path output = Paths.get(args[0]);
+        long rows = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        Path source = Paths.get(args.length > 4 ? args[4] : "src/main/resources/Housing.csv");
+
+        SyntheticHousingGenerator generator = fit(source);
+        long start = System.nanoTime();
+        long bytes = generator.write(output, rows, seed, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Generated %d rows (%.1f MB) in %.2f s: %.0f rows/s, %.1f MB/s%n",
+                rows, bytes / 1e6, seconds, rows / seconds, bytes / 1e6 / seconds);
+    }
+}
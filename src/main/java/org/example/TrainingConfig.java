@@ -0,0 +1,173 @@
+package org.example;
+
+// Settings of a training run. A batch size of 0 trains full-batch on the whole
+// training split (the original behaviour), otherwise mini-batches are streamed through
+// an asynchronous prefetching iterator.
+public class TrainingConfig {
+    private int epochs = 1000;
+    private int batchSize = 0;
+    private int prefetchBatches = 4;
+    private long seed = 123;
+    // Early stopping: fraction of the training split held out for validation, epochs
+    // without improvement before stopping (0 disables) and the smallest loss decrease
+    // counted as an improvement
+    private double validationFraction = 0.0;
+    private int patience = 0;
+    private double minImprovement = 0.0;
+    // Wall-clock budget for the whole run in milliseconds (0 = unlimited)
+    private long maxTrainingMillis = 0;
+    // Data-parallel training: number of model replicas and how many batches each one
+    // trains between parameter averaging rounds
+    private int workers = 1;
+    private int averagingFrequency = 5;
+
+    public int getEpochs() {
+        return epochs;
+    }
+
+    public TrainingConfig setEpochs(int epochs) {
+        if (epochs <= 0) {
+            throw new IllegalArgumentException("Epochs must be positive: " + epochs);
+        }
+        this.epochs = epochs;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public TrainingConfig setBatchSize(int batchSize) {
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("Batch size must not be negative: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public boolean isMiniBatch() {
+        return batchSize > 0;
+    }
+
+    public int getPrefetchBatches() {
+        return prefetchBatches;
+    }
+
+    // Number of batches prepared ahead of the training loop by the background thread
+    public TrainingConfig setPrefetchBatches(int prefetchBatches) {
+        if (prefetchBatches <= 0) {
+            throw new IllegalArgumentException("Prefetch size must be positive: " + prefetchBatches);
+        }
+        this.prefetchBatches = prefetchBatches;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Seed of the per-epoch batch shuffling
+    public TrainingConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public double getValidationFraction() {
+        return validationFraction;
+    }
+
+    public TrainingConfig setValidationFraction(double validationFraction) {
+        if (validationFraction < 0 || validationFraction >= 1) {
+            throw new IllegalArgumentException("Validation fraction must be in [0, 1): " + validationFraction);
+        }
+        this.validationFraction = validationFraction;
+        return this;
+    }
+
+    public int getPatience() {
+        return patience;
+    }
+
+    public TrainingConfig setPatience(int patience) {
+        if (patience < 0) {
+            throw new IllegalArgumentException("Patience must not be negative: " + patience);
+        }
+        this.patience = patience;
+        return this;
+    }
+
+    public double getMinImprovement() {
+        return minImprovement;
+    }
+
+    public TrainingConfig setMinImprovement(double minImprovement) {
+        this.minImprovement = minImprovement;
+        return this;
+    }
+
+    public long getMaxTrainingMillis() {
+        return maxTrainingMillis;
+    }
+
+    public TrainingConfig setMaxTrainingMillis(long maxTrainingMillis) {
+        if (maxTrainingMillis < 0) {
+            throw new IllegalArgumentException("Time budget must not be negative: " + maxTrainingMillis);
+        }
+        this.maxTrainingMillis = maxTrainingMillis;
+        return this;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public TrainingConfig setWorkers(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be positive: " + workers);
+        }
+        this.workers = workers;
+        return this;
+    }
+
+    public int getAveragingFrequency() {
+        return averagingFrequency;
+    }
+
+    public TrainingConfig setAveragingFrequency(int averagingFrequency) {
+        if (averagingFrequency <= 0) {
+            throw new IllegalArgumentException("Averaging frequency must be positive: " + averagingFrequency);
+        }
+        this.averagingFrequency = averagingFrequency;
+        return this;
+    }
+
+    public TrainingConfig copy() {
+        return new TrainingConfig()
+                .setEpochs(epochs)
+                .setBatchSize(batchSize)
+                .setPrefetchBatches(prefetchBatches)
+                .setSeed(seed)
+                .setValidationFraction(validationFraction)
+                .setPatience(patience)
+                .setMinImprovement(minImprovement)
+                .setMaxTrainingMillis(maxTrainingMillis)
+                .setWorkers(workers)
+                .setAveragingFrequency(averagingFrequency);
+    }
+
+    @Override
+    public String toString() {
+        return "TrainingConfig{" +
+                "epochs=" + epochs +
+                ", batchSize=" + batchSize +
+                ", prefetchBatches=" + prefetchBatches +
+                ", seed=" + seed +
+                ", validationFraction=" + validationFraction +
+                ", patience=" + patience +
+                ", minImprovement=" + minImprovement +
+                ", maxTrainingMillis=" + maxTrainingMillis +
+                ", workers=" + workers +
+                ", averagingFrequency=" + averagingFrequency +
+                '}';
+    }
+}
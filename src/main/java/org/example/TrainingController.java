@@ -0,0 +1,226 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.parallelism.ParallelWrapper;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.AsyncDataSetIterator;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs the epoch loop for a network and decides when to stop: after the configured
+// number of epochs, when the validation loss has not improved for `patience` epochs, or
+// when the wall-clock budget is spent. The parameters of the best validation epoch are
+// restored at the end. With more than one worker, mini-batches are spread over model
+// replicas trained on separate threads whose parameters are averaged periodically.
+public class TrainingController {
+
+    // Outcome of a training run
+    public static class Result {
+        private final int epochs;
+        private final int bestEpoch;
+        private final double bestValidationLoss;
+        private final String stopReason;
+        private final long elapsedMillis;
+
+        Result(int epochs, int bestEpoch, double bestValidationLoss, String stopReason, long elapsedMillis) {
+            this.epochs = epochs;
+            this.bestEpoch = bestEpoch;
+            this.bestValidationLoss = bestValidationLoss;
+            this.stopReason = stopReason;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getEpochs() {
+            return epochs;
+        }
+
+        // -1 when no validation set was used
+        public int getBestEpoch() {
+            return bestEpoch;
+        }
+
+        // Validation MSE on the normalized target, NaN without validation set
+        public double getBestValidationLoss() {
+            return bestValidationLoss;
+        }
+
+        public String getStopReason() {
+            return stopReason;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "epochs=" + epochs +
+                    ", bestEpoch=" + bestEpoch +
+                    ", bestValidationLoss=" + bestValidationLoss +
+                    ", stopReason='" + stopReason + '\'' +
+                    ", elapsedMillis=" + elapsedMillis +
+                    '}';
+        }
+    }
+
+    private static final LatencyHistogram EPOCH_LATENCY = Metrics.histogram(Metrics.TRAINING_EPOCH);
+
+    private final MultiLayerNetwork model;
+    private final HousingDataLoader dataLoader;
+    private final TrainingConfig config;
+    // Optional per-epoch profile of the run, null when disabled
+    private TrainingProfiler profiler;
+
+    public TrainingController(MultiLayerNetwork model, HousingDataLoader dataLoader, TrainingConfig config) {
+        this.model = model;
+        this.dataLoader = dataLoader;
+        this.config = config;
+    }
+
+    public TrainingController setProfiler(TrainingProfiler profiler) {
+        this.profiler = profiler;
+        return this;
+    }
+
+    // Train on trainingData; validationData may be null to disable early stopping
+    public Result train(HousingDataView trainingData, HousingDataView validationData) {
+        long start = System.currentTimeMillis();
+        long deadline = config.getMaxTrainingMillis() > 0 ? start + config.getMaxTrainingMillis() : Long.MAX_VALUE;
+        boolean validate = validationData != null && !validationData.isEmpty();
+
+        if (config.getWorkers() > 1 && !config.isMiniBatch()) {
+            throw new IllegalArgumentException("Data-parallel training needs a mini-batch size");
+        }
+
+        DataSet fullBatch = null;
+        AsyncDataSetIterator prefetching = null;
+        DataSetIterator trainingBatches = null;
+        HousingDataSetIterator parallelBatches = null;
+        ParallelWrapper wrapper = null;
+        if (config.getWorkers() > 1) {
+            // Every worker owns a replica of the model and pulls its own batches; replicas
+            // are averaged back into the model every averagingFrequency batches
+            parallelBatches = new HousingDataSetIterator(trainingData, config.getBatchSize(), true, config.getSeed());
+            wrapper = new ParallelWrapper.Builder<>(model)
+                    .workers(config.getWorkers())
+                    .prefetchBuffer(config.getPrefetchBatches() * config.getWorkers())
+                    .averagingFrequency(config.getAveragingFrequency())
+                    .trainingMode(ParallelWrapper.TrainingMode.AVERAGING)
+                    .reportScoreAfterAveraging(true)
+                    .build();
+        } else if (config.isMiniBatch()) {
+            // Batches are assembled on a background thread and queued ahead of the training
+            // loop so the ND4J compute threads do not wait on data preparation
+            HousingDataSetIterator batches = new HousingDataSetIterator(trainingData, config.getBatchSize(), true, config.getSeed());
+            prefetching = new AsyncDataSetIterator(batches, config.getPrefetchBatches(), true);
+            trainingBatches = profiler != null ? profiler.timed(prefetching) : prefetching;
+        } else {
+            fullBatch = new DataSet(Nd4j.create(dataLoader.getFeatureMatrix(trainingData)),
+                    Nd4j.create(dataLoader.getTargetMatrix(trainingData)));
+        }
+
+        INDArray validationFeatures = null;
+        INDArray validationTargets = null;
+        if (validate) {
+            validationFeatures = Nd4j.create(dataLoader.getFeatureMatrix(validationData));
+            validationTargets = Nd4j.create(dataLoader.getTargetMatrix(validationData));
+        }
+
+        int reportEvery = config.isMiniBatch() ? Math.max(1, config.getEpochs() / 10) : 100;
+        double bestLoss = Double.POSITIVE_INFINITY;
+        int bestEpoch = -1;
+        INDArray bestParams = null;
+        int epoch = 0;
+        String stopReason = "max epochs reached";
+
+        // Replicas of a data-parallel run are trained outside this network, only the epoch
+        // totals are profiled then
+        List<TrainingListener> listeners = new ArrayList<>(model.getListeners());
+        if (profiler != null && wrapper == null) {
+            model.addListeners(profiler);
+        }
+
+        try {
+            while (epoch < config.getEpochs()) {
+                long epochStart = System.nanoTime();
+                if (profiler != null) {
+                    profiler.epochStarted();
+                }
+                if (wrapper != null) {
+                    parallelBatches.reset();
+                    wrapper.fit(parallelBatches);
+                } else if (prefetching != null) {
+                    prefetching.reset();
+                    model.fit(trainingBatches);
+                } else {
+                    model.fit(fullBatch);
+                }
+                int current = epoch++;
+
+                if (current % reportEvery == 0) {
+                    System.out.println("Epoch " + current + ", Score: " + model.score());
+                }
+
+                double loss = Double.NaN;
+                boolean stalled = false;
+                if (validate) {
+                    loss = meanSquaredError(model.output(validationFeatures), validationTargets);
+                    if (loss < bestLoss - config.getMinImprovement()) {
+                        bestLoss = loss;
+                        bestEpoch = current;
+                        bestParams = model.params().dup();
+                    } else {
+                        stalled = config.getPatience() > 0 && current - bestEpoch >= config.getPatience();
+                    }
+                }
+                EPOCH_LATENCY.recordSince(epochStart);
+                if (profiler != null) {
+                    profiler.epochFinished(current, trainingData.size(), model.score(), loss);
+                }
+
+                if (stalled) {
+                    stopReason = "no improvement for " + config.getPatience() + " epochs";
+                    break;
+                }
+
+                if (System.currentTimeMillis() >= deadline) {
+                    stopReason = "time budget of " + config.getMaxTrainingMillis() + " ms spent";
+                    break;
+                }
+            }
+        } finally {
+            model.setListeners(listeners);
+            if (prefetching != null) {
+                prefetching.shutdown();
+            }
+            if (wrapper != null) {
+                wrapper.shutdown();
+            }
+        }
+
+        // Keep the best model seen rather than the last one
+        if (bestParams != null) {
+            model.setParams(bestParams);
+        }
+
+        Result result = new Result(epoch, bestEpoch, validate ? bestLoss : Double.NaN, stopReason,
+                System.currentTimeMillis() - start);
+        System.out.println("Training stopped after " + epoch + " epochs (" + stopReason + ")" +
+                (validate ? ", best validation MSE " + bestLoss + " at epoch " + bestEpoch : ""));
+        if (profiler != null) {
+            System.out.println("Training profile: " + profiler.summary());
+        }
+        return result;
+    }
+
+    static double meanSquaredError(INDArray predictions, INDArray targets) {
+        INDArray diff = predictions.castTo(targets.dataType()).sub(targets);
+        return diff.mul(diff).sumNumber().doubleValue() / predictions.rows();
+    }
+}
@@ -0,0 +1,492 @@
+package org.example;
+
+import org.bytedeco.javacpp.Pointer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.optimize.api.BaseTrainingListener;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+// Per-epoch profile of a training run: wall time split into data wait, forward pass,
+// backward pass and parameter update, throughput, heap allocation, native memory and GC.
+// TrainingController marks the epochs (DL4J does not report them for full-batch fits) and
+// registers the profiler as listener of the network; the forward/backward/update split is
+// only available when the network itself is trained, not with data-parallel replicas.
+// Each finished epoch goes to the consumers and to the CSV or JSON Lines logs.
+public class TrainingProfiler extends BaseTrainingListener implements AutoCloseable {
+
+    // What limits the run, see getBottleneck()
+    public enum Bottleneck {
+        COMPUTE, DATA, MEMORY
+    }
+
+    // Share of the wall time above which the run counts as data- or memory-bound
+    private static final double DATA_SHARE = 0.2;
+    private static final double GC_SHARE = 0.1;
+
+    private static final String CSV_HEADER = "epoch,wallMs,dataMs,forwardMs,backwardMs,updateMs,otherMs," +
+            "iterations,samples,samplesPerSec,allocatedMB,heapUsedMB,nativeMB,gcCount,gcMs,score,validationLoss";
+
+    // Measurements of one epoch
+    public static class EpochProfile {
+        private final int epoch;
+        private final long wallNanos;
+        private final long dataNanos;
+        private final long forwardNanos;
+        private final long backwardNanos;
+        private final long updateNanos;
+        private final int iterations;
+        private final long samples;
+        private final long allocatedBytes;
+        private final long heapUsedBytes;
+        private final long nativeBytes;
+        private final long gcCount;
+        private final long gcMillis;
+        private final double score;
+        private final double validationLoss;
+
+        EpochProfile(int epoch, long wallNanos, long dataNanos, long forwardNanos, long backwardNanos, long updateNanos,
+                     int iterations, long samples, long allocatedBytes, long heapUsedBytes, long nativeBytes,
+                     long gcCount, long gcMillis, double score, double validationLoss) {
+            this.epoch = epoch;
+            this.wallNanos = wallNanos;
+            this.dataNanos = dataNanos;
+            this.forwardNanos = forwardNanos;
+            this.backwardNanos = backwardNanos;
+            this.updateNanos = updateNanos;
+            this.iterations = iterations;
+            this.samples = samples;
+            this.allocatedBytes = allocatedBytes;
+            this.heapUsedBytes = heapUsedBytes;
+            this.nativeBytes = nativeBytes;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+            this.score = score;
+            this.validationLoss = validationLoss;
+        }
+
+        public int getEpoch() {
+            return epoch;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        // Time the training thread waited for the next batch
+        public long getDataNanos() {
+            return dataNanos;
+        }
+
+        public long getForwardNanos() {
+            return forwardNanos;
+        }
+
+        public long getBackwardNanos() {
+            return backwardNanos;
+        }
+
+        // Gradient normalization and updater step
+        public long getUpdateNanos() {
+            return updateNanos;
+        }
+
+        // Validation, logging and everything not covered by the listener callbacks
+        public long getOtherNanos() {
+            return Math.max(0, wallNanos - dataNanos - forwardNanos - backwardNanos - updateNanos);
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        public double getSamplesPerSecond() {
+            return wallNanos == 0 ? 0.0 : samples * 1e9 / wallNanos;
+        }
+
+        // Heap allocated during the epoch by the threads alive at its end
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getHeapUsedBytes() {
+            return heapUsedBytes;
+        }
+
+        // Resident memory outside the committed heap, mostly ND4J buffers and native libraries
+        public long getNativeBytes() {
+            return nativeBytes;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcMillis() {
+            return gcMillis;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        // NaN without validation set
+        public double getValidationLoss() {
+            return validationLoss;
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d,%.1f,%.3f,%.3f,%.3f,%d,%d,%s,%s",
+                    epoch, wallNanos / 1e6, dataNanos / 1e6, forwardNanos / 1e6, backwardNanos / 1e6,
+                    updateNanos / 1e6, getOtherNanos() / 1e6, iterations, samples, getSamplesPerSecond(),
+                    allocatedBytes / 1e6, heapUsedBytes / 1e6, nativeBytes / 1e6, gcCount, gcMillis,
+                    score, Double.isNaN(validationLoss) ? "" : Double.toString(validationLoss));
+        }
+
+        public String toJson() {
+            return String.format(Locale.ROOT, "{\"epoch\":%d,\"wallMs\":%.3f,\"dataMs\":%.3f,\"forwardMs\":%.3f," +
+                            "\"backwardMs\":%.3f,\"updateMs\":%.3f,\"otherMs\":%.3f,\"iterations\":%d,\"samples\":%d," +
+                            "\"samplesPerSec\":%.1f,\"allocatedMB\":%.3f,\"heapUsedMB\":%.3f,\"nativeMB\":%.3f," +
+                            "\"gcCount\":%d,\"gcMs\":%d,\"score\":%s,\"validationLoss\":%s}",
+                    epoch, wallNanos / 1e6, dataNanos / 1e6, forwardNanos / 1e6, backwardNanos / 1e6,
+                    updateNanos / 1e6, getOtherNanos() / 1e6, iterations, samples, getSamplesPerSecond(),
+                    allocatedBytes / 1e6, heapUsedBytes / 1e6, nativeBytes / 1e6, gcCount, gcMillis,
+                    jsonNumber(score), jsonNumber(validationLoss));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Epoch %d: %.1f ms (data %.1f, forward %.1f, backward %.1f, update %.1f, " +
+                            "other %.1f), %.0f samples/s, %.1f MB allocated, %.1f MB native, GC %d in %d ms",
+                    epoch, wallNanos / 1e6, dataNanos / 1e6, forwardNanos / 1e6, backwardNanos / 1e6,
+                    updateNanos / 1e6, getOtherNanos() / 1e6, getSamplesPerSecond(), allocatedBytes / 1e6,
+                    nativeBytes / 1e6, gcCount, gcMillis);
+        }
+
+        private static String jsonNumber(double value) {
+            return Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value);
+        }
+    }
+
+    private final List<Consumer<EpochProfile>> consumers = new ArrayList<>();
+    private final List<BufferedWriter> csvLogs = new ArrayList<>();
+    private final List<BufferedWriter> jsonLogs = new ArrayList<>();
+    private final List<EpochProfile> epochs = new ArrayList<>();
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // Epoch in progress; listener callbacks and batch fetches all run on the training thread
+    private long epochStart;
+    private Map<Long, Long> allocatedAtStart;
+    private long gcCountAtStart;
+    private long gcMillisAtStart;
+    private long dataNanos;
+    private long forwardNanos;
+    private long backwardNanos;
+    private long updateNanos;
+    private int iterations;
+    private long mark;
+    private long dataAtMark;
+
+    // Called for every finished epoch on the training thread
+    public TrainingProfiler addConsumer(Consumer<EpochProfile> consumer) {
+        consumers.add(consumer);
+        return this;
+    }
+
+    // CSV for a .csv file, JSON Lines otherwise; the file is replaced
+    public TrainingProfiler logTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        BufferedWriter writer = Files.newBufferedWriter(file);
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+            writer.flush();
+            csvLogs.add(writer);
+        } else {
+            jsonLogs.add(writer);
+        }
+        return this;
+    }
+
+    // Time spent in next() of the iterator is reported as data wait
+    DataSetIterator timed(DataSetIterator iterator) {
+        return new TimedIterator(iterator);
+    }
+
+    void epochStarted() {
+        dataNanos = 0;
+        forwardNanos = 0;
+        backwardNanos = 0;
+        updateNanos = 0;
+        iterations = 0;
+        dataAtMark = 0;
+        allocatedAtStart = allocatedByThread();
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+        epochStart = System.nanoTime();
+        mark = epochStart;
+    }
+
+    void epochFinished(int epoch, long samples, double score, double validationLoss) {
+        long wall = System.nanoTime() - epochStart;
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : allocatedByThread().entrySet()) {
+            allocated += entry.getValue() - allocatedAtStart.getOrDefault(entry.getKey(), 0L);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        EpochProfile profile = new EpochProfile(epoch, wall, dataNanos, forwardNanos, backwardNanos, updateNanos,
+                iterations, samples, Math.max(0, allocated), runtime.totalMemory() - runtime.freeMemory(),
+                Math.max(0, Pointer.physicalBytes() - runtime.totalMemory()),
+                gcCount() - gcCountAtStart, gcMillis() - gcMillisAtStart, score, validationLoss);
+        epochs.add(profile);
+        try {
+            for (BufferedWriter log : csvLogs) {
+                log.write(profile.toCsv());
+                log.newLine();
+                log.flush();
+            }
+            for (BufferedWriter log : jsonLogs) {
+                log.write(profile.toJson());
+                log.newLine();
+                log.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Consumer<EpochProfile> consumer : consumers) {
+            consumer.accept(profile);
+        }
+    }
+
+    // Forward, backward, gradient and iterationDone follow each other for every batch; the
+    // stretch before the forward callback holds the batch fetch and the forward pass
+    @Override
+    public void onForwardPass(Model model, List<INDArray> activations) {
+        forwardDone();
+    }
+
+    @Override
+    public void onForwardPass(Model model, Map<String, INDArray> activations) {
+        forwardDone();
+    }
+
+    private void forwardDone() {
+        long now = System.nanoTime();
+        forwardNanos += Math.max(0, now - mark - (dataNanos - dataAtMark));
+        mark = now;
+    }
+
+    @Override
+    public void onBackwardPass(Model model) {
+        long now = System.nanoTime();
+        backwardNanos += now - mark;
+        mark = now;
+    }
+
+    @Override
+    public void iterationDone(Model model, int iteration, int epoch) {
+        long now = System.nanoTime();
+        updateNanos += now - mark;
+        iterations++;
+        mark = now;
+        dataAtMark = dataNanos;
+    }
+
+    public List<EpochProfile> getEpochs() {
+        return Collections.unmodifiableList(epochs);
+    }
+
+    private long total(ToLongFunction<EpochProfile> part) {
+        long total = 0;
+        for (EpochProfile profile : epochs) {
+            total += part.applyAsLong(profile);
+        }
+        return total;
+    }
+
+    // Memory-bound when GC takes a tenth of the time, data-bound when the training thread
+    // waits for batches a fifth of the time, compute-bound otherwise
+    public Bottleneck getBottleneck() {
+        long wall = total(EpochProfile::getWallNanos);
+        if (wall == 0) {
+            return Bottleneck.COMPUTE;
+        }
+        if (total(EpochProfile::getGcMillis) * 1e6 >= GC_SHARE * wall) {
+            return Bottleneck.MEMORY;
+        }
+        if (total(EpochProfile::getDataNanos) >= DATA_SHARE * wall) {
+            return Bottleneck.DATA;
+        }
+        return Bottleneck.COMPUTE;
+    }
+
+    // Totals over the run
+    public String summary() {
+        long wall = total(EpochProfile::getWallNanos);
+        long samples = total(EpochProfile::getSamples);
+        return String.format(Locale.ROOT, "%d epochs in %.1f ms: data %.1f%%, forward %.1f%%, backward %.1f%%, " +
+                        "update %.1f%%, other %.1f%%, %.0f samples/s, %.1f MB allocated, GC %d ms -> %s-bound",
+                epochs.size(), wall / 1e6, percent(EpochProfile::getDataNanos, wall),
+                percent(EpochProfile::getForwardNanos, wall), percent(EpochProfile::getBackwardNanos, wall),
+                percent(EpochProfile::getUpdateNanos, wall), percent(EpochProfile::getOtherNanos, wall),
+                wall == 0 ? 0.0 : samples * 1e9 / wall, total(EpochProfile::getAllocatedBytes) / 1e6,
+                total(EpochProfile::getGcMillis), getBottleneck().name().toLowerCase(Locale.ROOT));
+    }
+
+    private double percent(ToLongFunction<EpochProfile> part, long wall) {
+        return wall == 0 ? 0.0 : 100.0 * total(part) / wall;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        List<BufferedWriter> logs = new ArrayList<>(csvLogs);
+        logs.addAll(jsonLogs);
+        for (BufferedWriter log : logs) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        csvLogs.clear();
+        jsonLogs.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Threads that die during an epoch take their allocations with them, the figure is a lower bound
+    private Map<Long, Long> allocatedByThread() {
+        Map<Long, Long> allocated = new HashMap<>();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            long[] ids = threads.getAllThreadIds();
+            long[] bytes = ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0) {
+                    allocated.put(ids[i], bytes[i]);
+                }
+            }
+        }
+        return allocated;
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    // Delegates to the prefetching iterator and accounts the time blocked in next(); it
+    // does not claim async support so DL4J does not wrap it in another prefetch thread
+    private final class TimedIterator implements DataSetIterator {
+        private final DataSetIterator delegate;
+
+        TimedIterator(DataSetIterator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public DataSet next(int num) {
+            long start = System.nanoTime();
+            DataSet batch = delegate.next(num);
+            dataNanos += System.nanoTime() - start;
+            return batch;
+        }
+
+        @Override
+        public DataSet next() {
+            long start = System.nanoTime();
+            DataSet batch = delegate.next();
+            dataNanos += System.nanoTime() - start;
+            return batch;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public int inputColumns() {
+            return delegate.inputColumns();
+        }
+
+        @Override
+        public int totalOutcomes() {
+            return delegate.totalOutcomes();
+        }
+
+        @Override
+        public boolean resetSupported() {
+            return delegate.resetSupported();
+        }
+
+        @Override
+        public boolean asyncSupported() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            delegate.reset();
+        }
+
+        @Override
+        public int batch() {
+            return delegate.batch();
+        }
+
+        @Override
+        public void setPreProcessor(DataSetPreProcessor preProcessor) {
+            delegate.setPreProcessor(preProcessor);
+        }
+
+        @Override
+        public DataSetPreProcessor getPreProcessor() {
+            return delegate.getPreProcessor();
+        }
+
+        @Override
+        public List<String> getLabels() {
+            return delegate.getLabels();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.example;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelRegistryTest {
+    private static final int TEST_ROWS = 50;
+    private static final double PRICE_RANGE = 1_000_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void worseCandidateIsRejectedAfterReload() throws Exception {
+        MultiLayerNetwork network = new ModelConfig().createNetwork(HousingDataset.NUM_FEATURES);
+        ModelBundle serving = bundle(network, 0.0);
+
+        // Test prices close to what the serving model predicts
+        Random random = new Random(7);
+        double[][] testFeatures = new double[TEST_ROWS][HousingDataset.NUM_FEATURES];
+        for (double[] row : testFeatures) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = random.nextDouble();
+            }
+        }
+        double[] testPrices = serving.predictBatch(testFeatures);
+        for (int i = 0; i < testPrices.length; i++) {
+            testPrices[i] += random.nextGaussian() * 10_000;
+        }
+
+        Path path = tempDir.resolve("model.zip");
+        new ModelRegistry().publish(serving, metrics(0.8, 0.05)).getBundle().save(path);
+
+        // A fresh registry, as after a restart: the saved version has to be beaten
+        ModelRegistry registry = new ModelRegistry().setReplicas(1);
+        ModelBundle loaded = ModelBundle.load(path);
+        assertEquals(metrics(0.8, 0.05), loaded.getMetrics());
+        registry.publish(loaded, loaded.getMetrics());
+
+        // Same network, but every price is off by 500,000: its own normalized metrics look
+        // better than the serving ones, the RMSE on the shared test rows does not
+        ModelBundle worse = bundle(network.clone(), 500_000);
+        ModelRegistry.Promotion rejected = registry.promote(worse, metrics(0.9, 0.01), testFeatures, testPrices);
+        assertFalse(rejected.isAccepted());
+        assertEquals(1, registry.current().getVersion());
+
+        ModelRegistry.Promotion accepted = registry.promote(serving, metrics(0.8, 0.05), testFeatures, testPrices);
+        assertTrue(accepted.isAccepted());
+        assertEquals(2, registry.current().getVersion());
+    }
+
+    // Identity scaling of the features, prices scaled by PRICE_RANGE and shifted by priceOffset
+    private static ModelBundle bundle(MultiLayerNetwork network, double priceOffset) {
+        double[] offset = new double[HousingDataset.NUM_COLUMNS];
+        double[] range = new double[HousingDataset.NUM_COLUMNS];
+        Arrays.fill(range, 1.0);
+        offset[HousingDataset.PRICE_COLUMN] = priceOffset;
+        range[HousingDataset.PRICE_COLUMN] = PRICE_RANGE;
+        FeatureScaler scaler = FeatureScaler.fromParameters(FeatureScaler.Mode.MIN_MAX, offset, range);
+        return new ModelBundle(network, new ModelConfig(), scaler, 0L, TEST_ROWS);
+    }
+
+    private static Map<String, Double> metrics(double r2, double rmse) {
+        Map<String, Double> metrics = new HashMap<>();
+        metrics.put("r2", r2);
+        metrics.put("rmse", rmse);
+        return metrics;
+    }
+}
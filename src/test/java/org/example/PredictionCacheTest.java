@@ -0,0 +1,142 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PredictionCacheTest {
+    private static final double[] LISTING = {7420, 4, 2, 3, 1, 0, 0, 0, 1, 2, 1, 0};
+
+    @Test
+    void fractionalAreaBypassesWithoutBucketing() {
+        PredictionCache cache = new PredictionCache(new ModelRegistry(), 16, 1);
+        double[] fractional = LISTING.clone();
+        fractional[0] = 7420.6;
+        assertEquals(-1, cache.encode(fractional));
+        assertTrue(cache.encode(LISTING) >= 0);
+        assertEquals(Arrays.toString(LISTING), Arrays.toString(cache.decode(cache.encode(LISTING))));
+
+        // With buckets the area is rounded on purpose
+        PredictionCache bucketed = new PredictionCache(new ModelRegistry(), 16, 10);
+        assertEquals(7420.0, bucketed.decode(bucketed.encode(fractional))[0]);
+    }
+
+    @Test
+    void probeRunsWrapAroundTheTable() {
+        PredictionCache.Segment segment = new PredictionCache.Segment(4);
+        int last = segment.mask;
+        // Keys whose home is the last table slot, so their probe run continues at 0
+        List<Long> keys = keysWithHome(last, segment.mask, 3);
+        keys.addAll(keysWithHome(0, segment.mask, 2));
+
+        for (int i = 0; i < 4; i++) {
+            put(segment, keys.get(i), i);
+        }
+        // The fifth key evicts the oldest one, the run starting at the last slot is shifted back
+        put(segment, keys.get(4), 4);
+        assertEquals(-1, find(segment, keys.get(0)));
+        for (int i = 1; i < 5; i++) {
+            int slot = find(segment, keys.get(i));
+            assertTrue(slot >= 0, "key " + i + " lost after backward shift");
+            assertEquals(i, segment.values[slot]);
+        }
+    }
+
+    @Test
+    void matchesAnLruMap() {
+        int capacity = 8;
+        PredictionCache.Segment segment = new PredictionCache.Segment(capacity);
+        Map<Long, Double> reference = new LinkedHashMap<>(16, 0.75f, true);
+        // Few distinct keys, half of them sharing a home slot, so runs and evictions are frequent
+        List<Long> universe = keysWithHome(3, segment.mask, 10);
+        universe.addAll(keysWithHome(segment.mask, segment.mask, 10));
+
+        Random random = new Random(1);
+        for (int step = 0; step < 20_000; step++) {
+            long key = universe.get(random.nextInt(universe.size()));
+            int slot = find(segment, key);
+            Double expected = reference.get(key);
+            if (expected != null) {
+                assertTrue(slot >= 0);
+                assertEquals(expected, segment.values[slot]);
+                segment.moveToFront(slot);
+            } else {
+                assertEquals(-1, slot);
+                put(segment, key, step);
+                reference.put(key, (double) step);
+                if (reference.size() > capacity) {
+                    Iterator<Long> eldest = reference.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+            assertEquals(reference.size(), segment.size);
+        }
+        // LRU order: the list from head is the reference in reverse access order
+        List<Long> order = new ArrayList<>();
+        for (int slot = segment.head; slot >= 0; slot = segment.next[slot]) {
+            order.add(0, segment.keys[slot]);
+        }
+        assertEquals(new ArrayList<>(reference.keySet()), order);
+    }
+
+    @Test
+    void newVersionInvalidatesEntries() {
+        ModelRegistry registry = new ModelRegistry().setReplicas(1);
+        registry.publish(bundle(0.0), new LinkedHashMap<>());
+        PredictionCache cache = new PredictionCache(registry, 16, 1, 1);
+
+        double first = cache.predictPrice(LISTING);
+        assertEquals(first, cache.predictPrice(LISTING));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+
+        // Same network, every price shifted: a stale entry would return the old price
+        registry.publish(bundle(100_000), new LinkedHashMap<>());
+        double second = cache.predictPrice(LISTING);
+        assertNotEquals(first, second);
+        assertEquals(registry.predictPrice(LISTING), second, 1e-6);
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(1, cache.size());
+    }
+
+    private static ModelBundle bundle(double priceOffset) {
+        double[] offset = new double[HousingDataset.NUM_COLUMNS];
+        double[] range = new double[HousingDataset.NUM_COLUMNS];
+        Arrays.fill(range, 1.0);
+        range[0] = 10_000;
+        offset[HousingDataset.PRICE_COLUMN] = priceOffset;
+        range[HousingDataset.PRICE_COLUMN] = 1_000_000;
+        FeatureScaler scaler = FeatureScaler.fromParameters(FeatureScaler.Mode.MIN_MAX, offset, range);
+        ModelConfig config = new ModelConfig();
+        return new ModelBundle(config.createNetwork(HousingDataset.NUM_FEATURES), config, scaler, 0L, 0);
+    }
+
+    private static List<Long> keysWithHome(int home, int mask, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            if (((int) PredictionCache.mix(key) & mask) == home) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static void put(PredictionCache.Segment segment, long key, double value) {
+        segment.put(key, (int) PredictionCache.mix(key), value);
+    }
+
+    private static int find(PredictionCache.Segment segment, long key) {
+        return segment.find(key, (int) PredictionCache.mix(key));
+    }
+}